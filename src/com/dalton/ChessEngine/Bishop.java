@@ -1,7 +1,5 @@
 package com.dalton.ChessEngine;
 
-import java.util.ArrayList;
-
 import static com.dalton.ChessEngine.Types.*;
 
 /**
@@ -50,7 +48,7 @@ public class Bishop extends Piece{
 	 * @param position The position index to check from
 	 */
 	@Override
-	public void getMoves(ArrayList<Integer> moves,final long enemies,final long blanks,final int position){
+	public void getMoves(MoveList moves,final long enemies,final long blanks,final int position){
 		diagLineCheck(moves,enemies,blanks,position);
 	}
 
@@ -63,43 +61,6 @@ public class Bishop extends Piece{
 	 */
 	@Override
 	public long attackMask(final long enemies,final long blanks,final int pos){
-		long mask=0;
-		final int x=Coord.indexToX(pos);
-		//North West
-		int i=pos+NW;//iterate ahead of position
-		for(; Coord.indexToX(i)<BOARD_SIZE && Coord.indexToX(i)>x && i<TOTAL_SQUARES && (0!=(blanks & (1L << i))); i+=NW){
-			mask|=1L<<i;//while blank, add to mask
-		}
-		if(Coord.indexToX(i)<BOARD_SIZE && Coord.indexToX(i)>x && i<TOTAL_SQUARES && (0!=(enemies & (1L << i)))){
-			mask|=1L<<i;//then add the capture
-		}
-
-		//North East
-		i=pos+NE;//iterate ahead of position
-		for(; Coord.indexToX(i)>=0 && Coord.indexToX(i)<x && i<TOTAL_SQUARES && (0!=(blanks & (1L << i))); i+=NE){
-			mask|=1L<<i;
-		}
-		if(Coord.indexToX(i)>=0 && Coord.indexToX(i)<x && i<TOTAL_SQUARES && (0!=(enemies & (1L << i)))){
-			mask|=1L<<i;
-		}
-
-		//South East
-		i=pos+SE;//iterate ahead of position
-		for(; Coord.indexToX(i)>=0 && Coord.indexToX(i)<x && i>=0 && (0!=(blanks & (1L << i))); i+=SE){
-			mask|=1L<<i;
-		}
-		if(Coord.indexToX(i)>=0 && Coord.indexToX(i)<x && i>=0 && (0!=(enemies & (1L << i)))){
-			mask|=1L<<i;
-		}
-
-		//South West
-		i=pos+SW;//iterate ahead of position
-		for(; Coord.indexToX(i)<BOARD_SIZE && Coord.indexToX(i)>x && i>=0 && (0!=(blanks & (1L << i))); i+=SW){
-			mask|=1L<<i;
-		}
-		if(Coord.indexToX(i)<BOARD_SIZE && Coord.indexToX(i)>x && i>=0 && (0!=(enemies & (1L << i)))){
-			mask|=1L<<i;
-		}
-		return mask;
+		return MagicBitboard.bishopAttacks(pos,~blanks) & (enemies | blanks);//anything not blank blocks the line, only keep blanks and enemies
 	}
 }
\ No newline at end of file
@@ -8,7 +8,7 @@ import static com.dalton.ChessEngine.Types.*;
 /**
  * The game board, stored as a bitboard
  * @author Dalton Herrewynen
- * @version 2.1
+ * @version 2.6
  */
 public class Board{
 	/** These are ints to make use of fast Switch statements possible */
@@ -21,6 +21,16 @@ public class Board{
 	private long EnPassant;
 	/** Positions of each piece type */
 	private long[] pieces=new long[PIECE_TYPES];
+	/** Piece code on each square, Blank if empty, always matches the bitboards */
+	private byte[] mailbox=new byte[TOTAL_SQUARES];
+	/** Every square each team occupies, indexed by the team bit of the piece codes so WHITE is 0 and BLACK is 1 */
+	private long[] teamPieces=new long[2];
+	/** Every occupied square, both teams together */
+	private long occupied;
+	/** Who moves next, flipped by every move */
+	private boolean turn;
+	/** Zobrist key of the position, kept up to date by every change to the board */
+	private long hash;
 
 	/**
 	 * Creates a Board class from another Board.
@@ -29,7 +39,13 @@ public class Board{
 	public Board(Board board){
 		this.unmoved=board.unmoved;
 		this.EnPassant=board.getEnPassant();
+		this.turn=board.turn;
+		this.hash=board.hash;
 		System.arraycopy(board.pieces,0,this.pieces,0,PIECE_TYPES);
+		System.arraycopy(board.mailbox,0,this.mailbox,0,TOTAL_SQUARES);
+		this.teamPieces[0]=board.teamPieces[0];
+		this.teamPieces[1]=board.teamPieces[1];
+		this.occupied=board.occupied;
 	}
 
 	/** Default constructor creates a default board */
@@ -57,7 +73,11 @@ public class Board{
 	private void populateBlankBoard(){
 		unmoved=0;
 		EnPassant=0;
+		turn=WHITE;
 		Arrays.fill(pieces,0);
+		Arrays.fill(mailbox,(byte) Blank);
+		teamPieces[0]=teamPieces[1]=occupied=0;
+		hash=Zobrist.hash(this);//the empty board still has keys for the castling rights and side to move
 	}
 
 	/** Set up a default board with pieces ready for a normal game */
@@ -88,9 +108,10 @@ public class Board{
 
 	/** Sets all pieces on the board to think they've not been moved yet */
 	public void setAllNotMoved(){
-		unmoved=0;
+		hash^=Zobrist.castleKey(unmoved) ^ Zobrist.EnPassantKey(EnPassant);//take out the old keys
+		unmoved=occupied;//any piece will write a 1 to the has not moved place
 		EnPassant=0;
-		for(int i=0; i<PIECE_TYPES; ++i) unmoved|=pieces[i];//any piece will write a 1 to the has not moved place
+		hash^=Zobrist.castleKey(unmoved);//and put in the new one
 	}
 
 	/**
@@ -98,8 +119,10 @@ public class Board{
 	 * @param mask The square or squares to mark as not moved
 	 */
 	public void setHasNotMoved(long mask){
+		hash^=Zobrist.castleKey(unmoved) ^ Zobrist.EnPassantKey(EnPassant);
 		unmoved|=mask;//if either has any square, flip to a 1 and mark not moved
 		EnPassant=EnPassant & ~mask;//any bits in the mask should cancel the EnPassant
+		hash^=Zobrist.castleKey(unmoved) ^ Zobrist.EnPassantKey(EnPassant);
 	}
 
 	/**
@@ -107,11 +130,7 @@ public class Board{
 	 * @return long (64bit integer) bit mask
 	 */
 	public long getUnmoved(){
-		long result=unmoved;
-		for(int i=0; i<PIECE_TYPES; ++i){
-			result&=pieces[i];
-		}
-		return result;
+		return unmoved & occupied;
 	}
 
 	/**
@@ -129,13 +148,40 @@ public class Board{
 	 * @param mask The mask representing all the squares to set
 	 */
 	public void setSquare(int code,long mask){
-		mask=~mask;//make backwards for deletion of bits
-		unmoved=unmoved & mask;
-		EnPassant=0;//any move will cancel the EnPassant vulnerability
+		hash^=Zobrist.castleKey(unmoved) ^ Zobrist.EnPassantKey(EnPassant);//take out the old keys, put the new ones in at the end
 		for(int i=0; i<PIECE_TYPES; ++i){
-			pieces[i]=pieces[i] & mask;//blank out the squares in the mask
+			hashSquares(i,pieces[i] & mask);//take the keys out for any pieces about to be removed
+			pieces[i]=pieces[i] & ~mask;//blank out the squares in the mask
+		}
+		unmoved=unmoved & ~mask;
+		EnPassant=0;//any move will cancel the EnPassant vulnerability
+		teamPieces[0]&=~mask;
+		teamPieces[1]&=~mask;
+		occupied&=~mask;
+		if(code>=0 && code<PIECE_TYPES){//set this square to this code if the code is valid
+			pieces[code]|=mask;
+			teamPieces[code & 1]|=mask;
+			occupied|=mask;
+			hashSquares(code,mask);
+		}else{
+			code=Blank;
+		}
+		for(long squares=mask; squares!=0; squares&=squares-1){
+			mailbox[Long.numberOfTrailingZeros(squares)]=(byte) code;
+		}
+		hash^=Zobrist.castleKey(unmoved);
+	}
+
+	/**
+	 * Toggles the keys for one piece type on some squares in or out of the hash
+	 * @param code    The piece code
+	 * @param squares The squares to toggle
+	 */
+	private void hashSquares(int code,long squares){
+		while(squares!=0){
+			hash^=Zobrist.pieceKey(code,Long.numberOfTrailingZeros(squares));
+			squares&=squares-1;
 		}
-		if(code>=0 && code<PIECE_TYPES) pieces[code]|=~mask;//set this square to this code if the code is valid
 	}
 
 	/**
@@ -165,6 +211,7 @@ public class Board{
 	 * @return Integer piece code
 	 */
 	public int getSquare(long mask){
+		if(mask!=0 && (mask & (mask-1))==0) return mailbox[Long.numberOfTrailingZeros(mask)];//one square is just a lookup
 		for(int i=0; i<PIECE_TYPES; ++i){
 			if((pieces[i] & mask)!=0) return i;//see why I used final ints now
 		}
@@ -172,13 +219,12 @@ public class Board{
 	}
 
 	/**
-	 * Gets the code of the piece at a given square
-	 * Just a wrapper for <code>getSquare(long mask)</code>
+	 * Gets the code of the piece at a given square, read straight from the mailbox
 	 * @param index the square to check
 	 * @return Integer piece code
 	 */
 	public int getSquare(int index){
-		return getSquare(indexToMask(index));
+		return mailbox[index & (TOTAL_SQUARES-1)];//wraps the same way shifting a mask by the index does, so a bad index cannot throw
 	}
 
 	/**
@@ -205,9 +251,36 @@ public class Board{
 	 * @param mask The 64 bit mask of squares to set
 	 */
 	public void setEnPassant(long mask){
+		hash^=Zobrist.EnPassantKey(EnPassant) ^ Zobrist.EnPassantKey(mask);//swap the old file's key for the new one
 		EnPassant=mask;//override EnPassant mask with new mask
 	}
 
+	/**
+	 * Gets who moves next
+	 * @return WHITE or BLACK
+	 */
+	public boolean getTurn(){
+		return turn;
+	}
+
+	/**
+	 * Sets who moves next, moves flip this on their own so it is only needed when setting up a position
+	 * @param team WHITE or BLACK
+	 */
+	public void setTurn(boolean team){
+		hash^=Zobrist.sideKey(turn) ^ Zobrist.sideKey(team);
+		turn=team;
+	}
+
+	/**
+	 * Gets the Zobrist key of the position, which covers the pieces, castling rights, EnPassant file and side to move
+	 * @return 64-bit hash, the same position always has the same hash no matter how it was reached
+	 * @see Zobrist
+	 */
+	public long getHash(){
+		return hash;
+	}
+
 	/**
 	 * Returns a bitmask of all the pieces that are on the board based on their code
 	 * @param pieceCode The piece code to get
@@ -224,62 +297,170 @@ public class Board{
 	 * @see Move
 	 */
 	public void makeMove(int move){
-		switch(Move.getSpecialCode(move)){//calculate what type of move this is
-			case Move.blankMove://if a blank move tag is detected
-				break;//do nothing, ignore blank moves
-			case Move.kSideCastle://king side castling
-				kingSideCastle(move);
-				break;
-			case Move.qSideCastle://queen side castling
-				queenSideCastle(move);
+		makeMove(move,capturedBy(move));
+	}
+
+	/**
+	 * Applies a move and records what it destroys so that unmakeMove can take it back
+	 * @param move The move data encoded into a single integer
+	 * @param undo Where to record the state before the move, re-used between moves
+	 * @see #unmakeMove(int,UndoInfo)
+	 */
+	public void makeMove(int move,UndoInfo undo){
+		undo.unmoved=unmoved;
+		undo.EnPassant=EnPassant;
+		undo.hash=hash;
+		undo.captured=capturedBy(move);
+		makeMove(move,undo.captured);
+	}
+
+	/**
+	 * Applies a move when the captured piece is already known, only the bitboards the move touches are changed
+	 * @param move     The move data encoded into a single integer
+	 * @param captured Piece code of the piece being captured, Blank if none
+	 */
+	private void makeMove(int move,int captured){
+		if(Move.isBlank(move)) return;//do nothing, ignore blank moves
+		int start=Move.getStartIndex(move),end=Move.getEndIndex(move);
+		long touched=indexToMask(start) | indexToMask(end);//every square the move touches loses its unmoved mark
+		hash^=Zobrist.castleKey(unmoved) ^ Zobrist.EnPassantKey(EnPassant) ^ Zobrist.sideKey(turn);//take out the old keys, put the new ones in at the end
+		switch(Move.getSpecialCode(move)){
+			case Move.kSideCastle -> touched=indexToMask(start) | indexToMask(start+3);//the King and the Rook in the corner
+			case Move.qSideCastle -> touched=indexToMask(start) | indexToMask(start-4);
+			case Move.EnPassantCapture -> touched|=EnPassant;
+		}
+		togglePieces(move,captured,EnPassant);
+		unmoved&=~touched;
+		EnPassant=(Move.getSpecialCode(move)==Move.pawnDoubleMove)? indexToMask(end) : 0;//only a double move leaves a pawn vulnerable
+		turn=!turn;//other player's turn
+		hash^=Zobrist.castleKey(unmoved) ^ Zobrist.EnPassantKey(EnPassant) ^ Zobrist.sideKey(turn);
+	}
+
+	/**
+	 * Passes the turn without moving anything, for null move pruning. Only the side to move and the EnPassant change
+	 * @param undo Where to record the state before passing
+	 * @see #unmakeNullMove(UndoInfo)
+	 */
+	public void makeNullMove(UndoInfo undo){
+		undo.unmoved=unmoved;
+		undo.EnPassant=EnPassant;
+		undo.hash=hash;
+		undo.captured=Blank;
+		hash^=Zobrist.EnPassantKey(EnPassant) ^ Zobrist.sideKey(turn) ^ Zobrist.sideKey(!turn);
+		EnPassant=0;//passing gives up the chance to capture by EnPassant
+		turn=!turn;
+	}
+
+	/**
+	 * Takes back a pass made with makeNullMove
+	 * @param undo The record filled in when passing
+	 * @see #makeNullMove(UndoInfo)
+	 */
+	public void unmakeNullMove(UndoInfo undo){
+		EnPassant=undo.EnPassant;
+		hash=undo.hash;
+		turn=!turn;
+	}
+
+	/**
+	 * Works out which piece a move will capture
+	 * @param move The move data encoded into a single integer
+	 * @return Piece code of the captured piece, Blank if none
+	 */
+	private int capturedBy(int move){
+		return switch(Move.getSpecialCode(move)){
+			case Move.blankMove,Move.kSideCastle,Move.qSideCastle,Move.pawnDoubleMove -> Blank;//nothing can be captured
+			case Move.EnPassantCapture -> Move.getPieceCode(move) ^ 1;//the other team's pawn, flipping the team bit
+			default -> getSquare(Move.getEndIndex(move));//whatever was on the destination square
+		};
+	}
+
+	/**
+	 * Flips the pieces a move changes in and out of their bitboards, XOR undoes itself so the same call makes and unmakes the move
+	 * @param move      The move data encoded into a single integer
+	 * @param captured  Piece code of the captured piece, Blank if none
+	 * @param EnPassant The pawn that could be captured by EnPassant before the move
+	 */
+	private void togglePieces(int move,int captured,long EnPassant){
+		int start=Move.getStartIndex(move),end=Move.getEndIndex(move),code=Move.getPieceCode(move);
+		switch(Move.getSpecialCode(move)){
+			case Move.kSideCastle://King moves two over, Rook jumps from the corner to beside it, only the start square is trusted for castling
+				togglePiece(code,start,start+2);
+				togglePiece(RookW+(code & 1),start+3,start+1);//same team as the King
 				break;
-			case Move.pawnDoubleMove://for double move, make the move, then set the en passant vulnerability
-				setSquare(Blank,Move.getStartIndex(move));//blank out where we were
-				setSquare(Move.getPieceCode(move),Move.getEndIndex(move));//move
-				setEnPassant(indexToMask(Move.getEndIndex(move)));//record vulnerability on the pawn that moved
+			case Move.qSideCastle:
+				togglePiece(code,start,start-2);
+				togglePiece(RookW+(code & 1),start-4,start-1);
 				break;
-			case Move.EnPassantCapture://delete the square behind the pawn that moved because it captures that square
-				setSquare(Blank,EnPassant | Move.getStartMask(move));//Delete the only piece that was vulnerable to EnPassant, and the pawn that does the capturing
-				setSquare(Move.getPieceCode(move),Move.getEndIndex(move));//move the capturing pawn
+			case Move.EnPassantCapture://the captured pawn is beside the start square, not on the end square
+				togglePiece(code,start,end);
+				togglePiece(captured,Long.numberOfTrailingZeros(EnPassant));
 				break;
-			default://pawn promotion, capture, or normal move
-				setSquare(Blank,Move.getStartIndex(move));//blank the square
-				setSquare(Move.getPieceCode(move),Move.getEndIndex(move));//set to destination to the encoded piece code (pawn promotion will have other piece, normal moves have same piece)
+			default://normal moves, captures, double moves and promotions
+				if(captured!=Blank) togglePiece(captured,end);
+				if(Move.isPawnPromotion(move)){//the pawn leaves, the promoted piece arrives
+					togglePiece(PawnW+(code & 1),start);
+					togglePiece(code,end);
+				}else{
+					togglePiece(code,start,end);
+				}
 		}
 	}
 
 	/**
-	 * Handles the king side castling for both teams
-	 * @param move the encoded move integer
+	 * Moves one piece by flipping its start and end squares together, the hash keys are flipped with it
+	 * @param code  The piece code
+	 * @param start The square it leaves
+	 * @param end   The square it lands on
 	 */
-	private void kingSideCastle(int move){//TODO change to using just bit masking
-		int y=Coord.indexToY(Move.getStartIndex(move));
-		if(y==0){//if on WHITE side of board
-			setSquare(KingW,6,0);
-			setSquare(RookW,5,0);
-		}else{//if on BLACK side of board
-			setSquare(KingB,6,7);
-			setSquare(RookB,5,7);
-		}
-		setSquare(Blank,4,y);
-		setSquare(Blank,7,y);
+	private void togglePiece(int code,int start,int end){
+		final long squares=indexToMask(start) | indexToMask(end);
+		pieces[code]^=squares;
+		teamPieces[code & 1]^=squares;
+		occupied^=squares;
+		hash^=Zobrist.pieceKey(code,start) ^ Zobrist.pieceKey(code,end);
+		updateMailbox(code,start);
+		updateMailbox(code,end);
 	}
 
 	/**
-	 * Handles the queen side castling for both teams
-	 * @param move the encoded move integer
+	 * Adds or removes one piece on one square, the hash key is flipped with it
+	 * @param code  The piece code
+	 * @param index The square
 	 */
-	private void queenSideCastle(int move){//TODO change to using just bit masking
-		int y=Coord.indexToY(Move.getStartIndex(move));
-		if(y==0){//if on WHITE side of board
-			setSquare(KingW,2,0);
-			setSquare(RookW,3,0);
-		}else{//if on BLACK side of board
-			setSquare(KingB,2,7);
-			setSquare(RookB,3,7);
-		}
-		setSquare(Blank,4,y);
-		setSquare(Blank,0,y);
+	private void togglePiece(int code,int index){
+		final long square=indexToMask(index);
+		pieces[code]^=square;
+		teamPieces[code & 1]^=square;
+		occupied^=square;
+		hash^=Zobrist.pieceKey(code,index);
+		updateMailbox(code,index);
+	}
+
+	/**
+	 * Brings one mailbox square in line with a bitboard that was just flipped.
+	 * A square is only blanked if it still holds this piece, so the order of the flips does not matter when a capture shares the square
+	 * @param code  The piece code that was flipped
+	 * @param index The square
+	 */
+	private void updateMailbox(int code,int index){
+		if((pieces[code] & indexToMask(index))!=0) mailbox[index]=(byte) code;
+		else if(mailbox[index]==code) mailbox[index]=(byte) Blank;
+	}
+
+	/**
+	 * Takes back a move made with makeMove(move,undo), the board ends up exactly as it was
+	 * @param move The same move that was made
+	 * @param undo The record filled in when the move was made
+	 * @see #makeMove(int,UndoInfo)
+	 */
+	public void unmakeMove(int move,UndoInfo undo){
+		if(Move.isBlank(move)) return;
+		togglePieces(move,undo.captured,undo.EnPassant);//the same flips put everything back
+		unmoved=undo.unmoved;
+		EnPassant=undo.EnPassant;
+		hash=undo.hash;//cheaper to restore than to flip the keys back out
+		turn=!turn;//back to the player who made the move
 	}
 
 	/**
@@ -297,7 +478,13 @@ public class Board{
 	public void loadState(Board state){
 		unmoved=state.unmoved;
 		EnPassant=state.EnPassant;
-		pieces=Arrays.copyOf(state.pieces,PIECE_TYPES);
+		turn=state.turn;
+		hash=state.hash;
+		System.arraycopy(state.pieces,0,pieces,0,PIECE_TYPES);//copy into the existing array, no allocation
+		System.arraycopy(state.mailbox,0,mailbox,0,TOTAL_SQUARES);
+		teamPieces[0]=state.teamPieces[0];
+		teamPieces[1]=state.teamPieces[1];
+		occupied=state.occupied;
 	}
 
 	/**
@@ -325,12 +512,39 @@ public class Board{
 	 * @return long (64-bit integer) used as a bit mask
 	 */
 	public long alliedPieceMask(boolean team){
-		long posMask=0;
-		int i=(team)? 0 : 1;//skip one if BLACK
-		for(; i<PIECE_TYPES; i+=2){//move up by 2 so we skip enemy pieces
-			posMask|=pieces[i];//bitwise or will add all allied pieces masks
-		}
-		return posMask;
+		return teamPieces[(team==WHITE)? 0 : 1];//kept up to date by every change, no need to add up the pieces
+	}
+
+	/**
+	 * Gets the mask of every occupied square, both teams
+	 * @return long (64-bit integer) used as a bit mask
+	 */
+	public long getOccupied(){
+		return occupied;
+	}
+
+	/**
+	 * Checks if two boards hold the same position: same pieces, castling rights, EnPassant and side to move.
+	 * Pieces that moved and came back are still the same position, so only the castling rights are compared from the unmoved masks
+	 * @param other The other board
+	 * @return True if the positions match
+	 */
+	@Override
+	public boolean equals(Object other){
+		if(this==other) return true;
+		if(!(other instanceof Board board)) return false;
+		if(hash!=board.hash || turn!=board.turn || EnPassant!=board.EnPassant
+				|| Zobrist.castleRights(unmoved)!=Zobrist.castleRights(board.unmoved)) return false;//the hash check throws out almost everything first
+		return Arrays.equals(pieces,board.pieces);
+	}
+
+	/**
+	 * Hash code from the Zobrist key, matches equals
+	 * @return 32-bit hash code
+	 */
+	@Override
+	public int hashCode(){
+		return (int) (hash ^ (hash >>> 32));
 	}
 
 	/**
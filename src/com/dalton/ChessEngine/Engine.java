@@ -1,22 +1,72 @@
 package com.dalton.ChessEngine;
 
 import java.util.ArrayList;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static com.dalton.ChessEngine.Types.*;
 
 /**
  * Holds the chess engine code
  * @author Dalton Herrewynen
- * @version 0.4
+ * @version 0.16
  */
 public class Engine{
+	/** Transposition table size used until setHashSize is called */
+	public static final int DEFAULT_HASH_MB=16;
+	/** Bigger than any real score, small enough that negating it never overflows */
+	public static final int INFINITY=1_000_000_000;
+	/** Score for checkmating, less one per ply it takes so shorter mates score higher, also the score for taking a King that was left hanging */
+	public static final int MATE=INFINITY/2;
+	/** Scores at least this far from 0 are mates, leaves room to count the plies to the mate */
+	public static final int MATE_BOUND=MATE-1000;
+	/**
+	 * Ways to split the search between the threads: only the main thread, helpers sharing the table, the root moves divided up,
+	 * or the younger brothers of any deep enough node shared with idle threads (Young Brothers Wait Concept)
+	 */
+	public static final int SEQUENTIAL=0, LAZY_SMP=1, ROOT_SPLIT=2, YBWC=3;
 	private MoveGenerator moveGen;
 	private int maxDepth;
 	private int maxThreads=1;
-	/** Pre-Allocated boards for re-use in MiniMax, Arranged[depth] */
-	private Board[] boardArr;
-	/** Pre-Allocated board for re-use in checkmate checking */
-	private Board checkMateBoard;
+	/** How the search is split between the threads */
+	private int parallelMode=LAZY_SMP;
+	/** True to reduce the depth of late quiet moves, switched off only to compare against the full search */
+	private boolean lateMoveReductions=true;
+	/** True to start each depth with a narrow window around the last score, switched off only to compare against the full window */
+	private boolean aspirationWindows=true;
+	/** True to try passing at non-PV nodes to prove a cutoff cheaply, switched off only to compare against the full search */
+	private boolean nullMovePruning=true;
+	/** Threads for splitting up work, sized by maxThreads and only made when first needed */
+	private ForkJoinPool pool;
+	/** Search state for each thread, the main thread first, only made when first needed */
+	private SearchThread[] searchThreads;
+	/** Nodes searched by every thread in the last search */
+	private long nodes=0;
+	/** Stop searching once this many nodes have been searched by all the threads together, Long.MAX_VALUE for no limit */
+	private long nodeLimit;
+	/** System.nanoTime() when the search has to stop, Long.MAX_VALUE for no limit */
+	private long deadline;
+	/** Nodes the threads have reported so far, they add to it in batches */
+	private final AtomicLong sharedNodes=new AtomicLong();
+	/** Set when the search has to stop, checked by every thread every few nodes, and set by stop() from any thread */
+	private volatile boolean stopped;
+	/** True from when a search has set up its stop flag until it returns, stop() does nothing outside of that */
+	private boolean searching=false;
+	/** Guards searching, so a stop() is tied to the one search running when it is called */
+	private final Object stopLock=new Object();
+	/** The deepest finished result of the running search, or of the last one */
+	private volatile SearchResult bestSoFar;
+	/** Search threads waiting to help at a split point, only used in YBWC mode */
+	private final ConcurrentLinkedQueue<SearchThread> idle=new ConcurrentLinkedQueue<>();
+	/** Pre-Allocated move list for re-use in checkmate checking */
+	private MoveList checkMateMoves;
+	/** Search results shared between searches (and threads), only made when first needed */
+	private TranspositionTable table;
+	/** Size of the transposition table in megabytes */
+	private int hashSize=DEFAULT_HASH_MB;
 
 	/**
 	 * Checks if the player is in check
@@ -26,8 +76,8 @@ public class Engine{
 	 */
 	public static boolean inCheck(Board board,boolean team){
 		long kingPos=board.searchPiece((team==WHITE)? PieceCode.KingW : PieceCode.KingB);
-		long attackMask=MoveGenerator.getTeamAttackMask(board,!team);//get capture mask for other team
-		return 0!=(kingPos&attackMask);
+		if(kingPos==0) return false;//no King means no check
+		return MoveGenerator.isSquareAttacked(board,Long.numberOfTrailingZeros(kingPos),!team);//look outwards from the King instead of building the whole enemy attack mask
 	}
 
 	/**
@@ -37,14 +87,7 @@ public class Engine{
 	 * @return True if checkmated, False if not
 	 */
 	public boolean isCheckmate(Board board,boolean team){
-		if(!inCheck(board,team)) return false;//not in check means not possible to check mate
-		ArrayList<Integer> moves=getMoves(board,team);//get moves that this team can make
-		for(int i=0; i<moves.size(); ++i){//search for a move which would get out of check
-			checkMateBoard.loadState(board);
-			checkMateBoard.makeMove(moves.get(i));//simulate the moves
-			if(!inCheck(checkMateBoard,team)) return false;//if there is a move which gets out of check, then not a mate
-		}
-		return true;//if no saving moves found, then it's checkmate
+		return isCheckmateFast(board,team);
 	}
 
 	/**
@@ -53,7 +96,7 @@ public class Engine{
 	 * @param kingPos Where is this team's King?
 	 * @return True if selected player is in check, False if not
 	 */
-	public static boolean inCheckFast(ArrayList<Integer> moves,final int kingPos){
+	public static boolean inCheckFast(MoveList moves,final int kingPos){
 		int i=0;
 		while(i<moves.size() && Move.getEndIndex(moves.get(i))!=kingPos){//search for a move which would capture the king
 			++i;
@@ -61,20 +104,15 @@ public class Engine{
 		return i>=moves.size();//if we ended early, it means that there was a capture on the king
 	}
 	/**
-	 * Checks if the player is checkmated (no way to save King from capture), requires a pre-computed moves list
+	 * Checks if the player is checkmated (no way to save King from capture), uses the pre-allocated legal move list
 	 * @param board Current board state
 	 * @param team  WHITE or BLACK
-	 * @param moves Pre-calculated list of moves
 	 * @return True if checkmated, False if not
 	 */
-	private boolean isCheckmateFast(Board board,final boolean team,ArrayList<Integer> moves){
+	private boolean isCheckmateFast(Board board,final boolean team){
 		if(!inCheck(board,team)) return false;//not in check means not possible to check mate
-		for(int i=0; i<moves.size(); ++i){//search for a move which would get out of check
-			checkMateBoard.loadState(board);
-			checkMateBoard.makeMove(moves.get(i));//simulate the moves
-			if(!inCheck(checkMateBoard,team)) return false;//if there is a move which gets out of check, then not a mate
-		}
-		return true;//if no saving moves found, then it's checkmate
+		MoveGenerator.generateLegalMoves(board,team,checkMateMoves);//every legal move gets out of check
+		return checkMateMoves.isEmpty();//if no saving moves found, then it's checkmate
 	}
 
 	/**
@@ -86,7 +124,7 @@ public class Engine{
 		//if(isCheckmate(board,WHITE)) return Integer.MIN_VALUE;//if WHITE is checkmated, Min score favors BLACK
 		//if(isCheckmate(board,BLACK)) return Integer.MAX_VALUE;//if BLACK is checkmated, Max score favors WHITE
 		long white=board.alliedPieceMask(WHITE),black=board.alliedPieceMask(BLACK),
-				blank=~(white|black);//add all occupied squares, take any that are not occupied and consider them blank
+				blank=~board.getOccupied();//take any squares that are not occupied and consider them blank
 		int score=0;
 		for(int i=0; i<PieceCode.PIECE_TYPES; ++i){
 			long positions=board.searchPiece(i);//Search WHITE first
@@ -110,14 +148,28 @@ public class Engine{
 	 * Gets all legal moves for a given player team as encoded integers
 	 * @param board The current state of the game
 	 * @param team  WHITE or BLACK
-	 * @return ArrayList of moves encoded into integers
+	 * @return List of moves encoded into integers
 	 */
-	public static ArrayList<Integer> getMoves(Board board,boolean team){
-		ArrayList<Integer> moves=new ArrayList<>();//Pass this single list around by reference, fewer memory allocations
-		int i=(team==WHITE)? PieceCode.WHITE_OFFSET : PieceCode.BLACK_OFFSET,pawn,king,index;
+	public static MoveList getMoves(Board board,boolean team){
+		MoveList moves=new MoveList();
+		getMoves(board,team,moves);
+		return moves;
+	}
+
+	/**
+	 * Gets all legal moves for a given player team as encoded integers, fills a list that was allocated ahead of time
+	 * @param board The current state of the game
+	 * @param team  WHITE or BLACK
+	 * @param moves The list to fill, it is cleared first
+	 */
+	public static void getMoves(Board board,boolean team,MoveList moves){
+		moves.clear();//Pass this single list around by reference, fewer memory allocations
+		int i=(team==WHITE)? PieceCode.WHITE_OFFSET : PieceCode.BLACK_OFFSET,index;
 		long positions,enemies=board.alliedPieceMask(!team),
-				blanks=~(enemies | board.alliedPieceMask(team));//add the enemies and friends together, invert to get blanks
-		for(; i<PieceCode.PIECE_TYPES; i+=2){
+				blanks=~board.getOccupied();//anything not occupied is blank
+		MoveGenerator.generatePawnMoves(moves,board.searchPiece(i),team,enemies,blanks,~0L);//all pawns at once, including promotions
+		MoveGenerator.generateEnPassant(moves,board.searchPiece(i),team,board.getEnPassant());
+		for(i+=2; i<PieceCode.PIECE_TYPES; i+=2){
 			positions=board.searchPiece(i);//for each piece code
 			index=Coord.maskToIndex(positions);
 			while(index!=Coord.ERROR_INDEX){//search all positions that piece is found at
@@ -125,25 +177,8 @@ public class Engine{
 				index=Coord.maskToNextIndex(positions,index);//find next location
 			}
 		}
-		//Check for EnPassant
-		if(team==WHITE){//todo, use batch processing masking techniques
-			positions=board.searchPiece(PieceCode.PawnW)&Pawn.WHITE_EnPassant_mask;//get all pawns that are at EnPassant capture rank
-			pawn=PieceCode.PawnW;
-			king=PieceCode.KingW;
-		}else{
-			positions=board.searchPiece(PieceCode.PawnB)&Pawn.BLACK_EnPassant_mask;
-			pawn=PieceCode.PawnB;
-			king=PieceCode.KingB;
-		}
-		index=Coord.maskToIndex(positions);
-		while(index!=Coord.ERROR_INDEX){
-			int move=((Pawn) PieceCode.pieceObj(pawn)).EnPassant(board.getEnPassant(),enemies,index);
-			if(!Move.isBlank(move)) moves.add(move);
-			index=Coord.maskToNextIndex(positions,index);
-		}
 		//Castling
-		((King) PieceCode.pieceObj(king)).getCastles(board,moves);//get castling moves
-		return moves;
+		((King) PieceCode.pieceObj((team==WHITE)? PieceCode.KingW : PieceCode.KingB)).getCastles(board,moves);//get castling moves
 	}
 
 	/**
@@ -154,12 +189,11 @@ public class Engine{
 	 * @return a list of moves encoded as integers
 	 * @see PieceCode
 	 */
-	public static ArrayList<Integer> getMoves(Board board,int pieceCode){
-		ArrayList<Integer> moves=new ArrayList<>();//Pass this single list around by reference, fewer memory allocations
+	public static MoveList getMoves(Board board,int pieceCode){
+		MoveList moves=new MoveList();//Pass this single list around by reference, fewer memory allocations
 		long positions=board.searchPiece(pieceCode);//for each piece code
 		long enemies=board.alliedPieceMask(!PieceCode.decodeTeam(pieceCode)),
-				blanks=~(enemies | board.alliedPieceMask(PieceCode.decodeTeam(pieceCode)));
-		long filteredPawns=0;
+				blanks=~board.getOccupied();
 		int index=Coord.maskToIndex(positions);//get initial position
 		switch(pieceCode){//special moves
 			case PieceCode.KingW://Kings can castle
@@ -167,20 +201,11 @@ public class Engine{
 				PieceCode.pieceObj(pieceCode).getMoves(moves,enemies,blanks,index);//get all standard moves
 				((King) PieceCode.pieceObj(pieceCode)).getCastles(board,moves);//get castling moves
 				return moves;//Only one king so we are done
-			case PieceCode.PawnW://select the EnPassant filter for either pawn
-				filteredPawns=Pawn.WHITE_EnPassant_mask&positions;//filter out only pawns that can EnPassant
-				break;
+			case PieceCode.PawnW://Pawns all move at once, including EnPassant
 			case PieceCode.PawnB:
-				filteredPawns=Pawn.BLACK_EnPassant_mask&positions;
-				break;
-		}
-		if(board.getEnPassant()!=0 && filteredPawns!=0){//if there is an EnPassant vulnerability
-			int filteredIndex=Coord.maskToIndex(filteredPawns),move;
-			while(filteredIndex!=Coord.ERROR_INDEX){//search all positions that piece is found at
-				move=((Pawn) PieceCode.pieceObj(pieceCode)).EnPassant(board.getEnPassant(),enemies,filteredIndex);
-				if(!Move.isBlank(move)) moves.add(move);//if a move was found, add it
-				filteredIndex=Coord.maskToNextIndex(filteredPawns,filteredIndex);//find next location
-			}
+				MoveGenerator.generatePawnMoves(moves,positions,PieceCode.decodeTeam(pieceCode),enemies,blanks,~0L);
+				MoveGenerator.generateEnPassant(moves,positions,PieceCode.decodeTeam(pieceCode),board.getEnPassant());
+				return moves;
 		}
 		while(index!=Coord.ERROR_INDEX){//search all positions that piece is found at
 			PieceCode.pieceObj(pieceCode).getMoves(moves,enemies,blanks,index);//get all normal moves for every one of these pieces
@@ -189,6 +214,29 @@ public class Engine{
 		return moves;
 	}
 
+	/**
+	 * Gets all legal moves for a given player team as encoded integers
+	 * @param board The current state of the game
+	 * @param team  WHITE or BLACK
+	 * @return List of moves encoded into integers
+	 * @see MoveGenerator#generateLegalMoves(Board,boolean,MoveList)
+	 */
+	public static MoveList getLegalMoves(Board board,boolean team){
+		MoveList moves=new MoveList();
+		getLegalMoves(board,team,moves);
+		return moves;
+	}
+
+	/**
+	 * Gets all legal moves for a given player team as encoded integers, fills a list that was allocated ahead of time
+	 * @param board The current state of the game
+	 * @param team  WHITE or BLACK
+	 * @param moves The list to fill, it is cleared first
+	 */
+	public static void getLegalMoves(Board board,boolean team,MoveList moves){
+		MoveGenerator.generateLegalMoves(board,team,moves);
+	}
+
 	/**
 	 * Generates only moves that are legal for a given piece type (all pawns, rooks, or knights, etc.)
 	 * Only checks the pieces that belong to the same team as the indicated Piece Code
@@ -197,27 +245,137 @@ public class Engine{
 	 * @return a list of moves encoded as integers
 	 * @see PieceCode
 	 */
-	public static ArrayList<Integer> getLegalMoves(Board board,int pieceCode){
-		ArrayList<Integer> moves=getMoves(board,pieceCode),legal=new ArrayList<>(moves.size());
-		Board movedBoard=new Board(Board.CLEAR);
+	public static MoveList getLegalMoves(Board board,int pieceCode){
+		MoveList moves=getLegalMoves(board,PieceCode.decodeTeam(pieceCode)),legal=new MoveList(moves.size());
+		long positions=board.searchPiece(pieceCode);
 		for(int i=0; i<moves.size(); ++i){
-			movedBoard.loadState(board);
-			movedBoard.makeMove(moves.get(i));//simulate the move
-			if(!inCheck(movedBoard,PieceCode.decodeTeam(pieceCode)))//if not in check
-				legal.add(moves.get(i));//add move
+			if(0!=(positions & (1L << Move.getStartIndex(moves.get(i)))))//match by where the move starts, promotions carry the new piece code
+				legal.add(moves.get(i));
 		}
 		return legal;
 	}
-	private int nodes=0;
 	/**
-	 * Generates all possible moves, split them up between all threads.
+	 * Counts every leaf of the legal move tree (perft), the root moves are split between the threads
+	 * @param board Current state of the board, it is not changed
+	 * @param team  Who moves first, WHITE or BLACK
+	 * @param depth How many plies to count
+	 * @return The node count, time, and the count below each root move
+	 * @see Perft
+	 */
+	public Perft perft(Board board,boolean team,int depth){
+		return Perft.run(board,team,depth,getPool(),null);
+	}
+
+	/**
+	 * Counts every leaf of the legal move tree (perft) with a hash table of subtree counts shared by all the threads, for deep runs
+	 * @param board     Current state of the board, it is not changed
+	 * @param team      Who moves first, WHITE or BLACK
+	 * @param depth     How many plies to count
+	 * @param megabytes Size of the table
+	 * @return The node count, time, and the count below each root move
+	 * @see PerftTable
+	 */
+	public Perft perft(Board board,boolean team,int depth,int megabytes){
+		return Perft.run(board,team,depth,getPool(),new PerftTable(megabytes));
+	}
+
+	/**
+	 * Gets the thread pool, making it the first time
+	 * @return Pool sized to maxThreads
+	 */
+	private ForkJoinPool getPool(){
+		if(pool==null) pool=new ForkJoinPool(Math.max(1,maxThreads));
+		return pool;
+	}
+
+	/**
+	 * Gets the transposition table, making it the first time
+	 * @return Table sized to hashSize
+	 */
+	TranspositionTable getTable(){
+		if(table==null) table=new TranspositionTable(hashSize);
+		return table;
+	}
+
+	/**
+	 * Sets the size of the transposition table, the old table and everything in it is thrown away
+	 * @param megabytes How much memory the table should use
+	 */
+	public void setHashSize(int megabytes){
+		hashSize=Math.max(1,megabytes);
+		table=null;//made again at the new size when next needed
+	}
+
+	/** Empties the transposition table, for starting a new game */
+	public void clearHash(){
+		if(table!=null) table.clear();
+	}
+
+	/**
+	 * Searches to a fixed depth, with no time or node limit.
 	 * Then returns the move with the best score after scoring to the desired depth.
 	 * @param board  Current state of the board for the search
 	 * @param player Pick best move for whom? (WHITE or BLACK)
-	 * @param depth  The desired maximum depth
+	 * @param depth  The desired maximum depth, at least 1 ply is always searched
 	 * @return Encoded move integer
 	 */
 	public int getBestMove(Board board,boolean player,int depth){
+		return getBestMove(board,player,depth,0,0);
+	}
+
+	/**
+	 * Searches deeper and deeper until the depth, time or node limit runs out
+	 * @param board    Current state of the board for the search
+	 * @param player   Pick best move for whom? (WHITE or BLACK)
+	 * @param depth    The desired maximum depth, at least 1 ply is always searched
+	 * @param millis   Time allowed for the search in milliseconds, 0 for no limit
+	 * @param maxNodes Most nodes to search, 0 for no limit
+	 * @return Encoded move integer, the best move of the deepest depth that finished
+	 * @see #search(Board,boolean,int,long,long)
+	 */
+	public int getBestMove(Board board,boolean player,int depth,long millis,long maxNodes){
+		return search(board,player,depth,millis,maxNodes).getBestMove();
+	}
+
+	/**
+	 * Searches deeper and deeper until a limit runs out or the search is stopped
+	 * @param board  Current state of the board for the search
+	 * @param player Pick best move for whom? (WHITE or BLACK)
+	 * @param limits When to stop
+	 * @return Encoded move integer, the best move of the deepest depth that finished
+	 * @see #search(Board,boolean,SearchLimits)
+	 */
+	public int getBestMove(Board board,boolean player,SearchLimits limits){
+		return search(board,player,limits).getBestMove();
+	}
+
+	/**
+	 * Searches deeper and deeper until the depth, time or node limit runs out
+	 * @param board    Current state of the board for the search
+	 * @param player   Pick best move for whom? (WHITE or BLACK)
+	 * @param depth    The desired maximum depth, at least 1 ply is always searched. Unlike SearchLimits, 0 does not mean no limit
+	 * @param millis   Time allowed for the search in milliseconds, 0 for no limit
+	 * @param maxNodes Most nodes to search, 0 for no limit
+	 * @return The principal variation and score of the deepest depth that finished
+	 * @see #search(Board,boolean,SearchLimits)
+	 */
+	public SearchResult search(Board board,boolean player,int depth,long millis,long maxNodes){
+		return search(board,player,new SearchLimits(Math.max(1,depth),maxNodes,millis,0));//only SearchLimits uses 0 for the Engine's maximum depth
+	}
+
+	/**
+	 * Searches deeper and deeper (1 ply, 2 plies, 3 plies...) until a limit runs out or stop() is called.
+	 * Each finished depth leaves its results in the transposition table and its principal variation, which order the moves for the next depth,
+	 * so the shallow searches cost little and there is always a finished answer to fall back on.<br/>
+	 * With more than one thread, the work is split as set by setParallelMode, by default the helpers search alongside the main thread (Lazy SMP),
+	 * all threads share the transposition table. Only one search can run at a time on an Engine
+	 * @param board  Current state of the board for the search
+	 * @param player Pick best move for whom? (WHITE or BLACK)
+	 * @param limits When to stop, the search always stops at the Engine's maximum depth
+	 * @return The principal variation and score of the deepest depth that finished
+	 * @see #stop()
+	 */
+	public SearchResult search(Board board,boolean player,SearchLimits limits){
 		/*
 		Generate all moves we can make
 		score the move as is?
@@ -225,93 +383,374 @@ public class Engine{
 		Run minimax on the moves
 		Try to store all enemy moves a level or 2 deep, then recall the score from the move the enemy makes so save on computing time
 		 */
+		final long start=System.nanoTime(),millis=limits.getMillis();
+		MoveList legalMoves=getLegalMoves(board,player);//only the root needs to be strictly legal, this is the move that gets played
+		MoveList firstMove=new MoveList();
+		if(!legalMoves.isEmpty()) firstMove.add(legalMoves.get(0));//any legal move beats none if stopped right away
+		synchronized(stopLock){//from here on stop() is for this search, nothing from before it carries over
+			bestSoFar=new SearchResult(firstMove,0,0,0,0);
+			stopped=false;
+			searching=true;
+		}
+		try{
+			return runSearch(board,player,limits,legalMoves,millis,start);
+		}finally{
+			synchronized(stopLock){
+				searching=false;
+				stopped=false;
+			}
+		}
+	}
+
+	/**
+	 * Runs a search once the root moves are known, the threads are all done when it returns
+	 * @param board      Current state of the board for the search
+	 * @param player     Pick best move for whom? (WHITE or BLACK)
+	 * @param limits     When to stop
+	 * @param legalMoves The legal root moves
+	 * @param millis     Time allowed for the search in milliseconds, 0 for no limit
+	 * @param start      System.nanoTime() when the search started
+	 * @return The principal variation and score of the deepest depth that finished
+	 */
+	private SearchResult runSearch(Board board,boolean player,SearchLimits limits,MoveList legalMoves,long millis,long start){
+		final int depth=(limits.getDepth()>0)? Math.min(limits.getDepth(),maxDepth) : maxDepth;
 		nodes=0;
-		depth=Math.min(depth,maxDepth);
-		ArrayList<Integer> legalMoves=getMoves(board,player);
-		ArrayList<Integer> scores=new ArrayList<>();
-		int bestMove, bestScore;
-		Board movedBoard=new Board(Board.CLEAR);
-		if(legalMoves.isEmpty()) return Move.blank();//signal there are no moves if there are no moves found
-		for(int i=0; i<legalMoves.size(); ++i){
-			movedBoard.loadState(board);
-			movedBoard.makeMove(legalMoves.get(i));
-			scores.add(minimax(movedBoard,player,depth,Integer.MIN_VALUE,Integer.MAX_VALUE));
+		nodeLimit=(limits.getNodes()>0)? limits.getNodes() : Long.MAX_VALUE;
+		deadline=(millis>0)? start+millis*1_000_000 : Long.MAX_VALUE;
+		sharedNodes.set(0);
+		if(legalMoves.isEmpty()) return new SearchResult(new MoveList(),0,0,0,System.nanoTime()-start);//signal there are no moves if there are no moves found
+		getTable().newSearch();
+		SearchThread[] threads=getSearchThreads();
+		for(SearchThread thread: threads){
+			thread.newSearch(limits.getNodes());
 		}
-		bestMove=legalMoves.get(0);//there is at least one move if we get here
-		bestScore=scores.get(0);
-		if(player==WHITE){//WHITE is maximizing player
-			for(int i=1; i<scores.size(); ++i){
-				if(scores.get(i)>bestScore){//find the maximal score and select its move
-					bestScore=scores.get(i);
-					bestMove=legalMoves.get(i);
-				}
+		SearchResult best=switch(parallelMode){
+			case LAZY_SMP -> searchLazySMP(threads,board,player,depth,legalMoves,millis,start);
+			case ROOT_SPLIT -> searchRootSplit(threads,board,player,depth,legalMoves,millis,start);
+			case YBWC -> searchYBWC(threads,board,player,depth,legalMoves,millis,start);
+			default -> threads[0].iterate(copyForSearch(board,player),player,depth,legalMoves,millis,start);
+		};
+		stopSearch();//anything still running is not needed
+		nodes=countNodes(threads);
+		SearchResult result=new SearchResult(best.getPV(),best.getScore(),best.getDepth(),nodes,System.nanoTime()-start);
+		bestSoFar=result;
+		return result;
+	}
+
+	/**
+	 * Stops the running search, safe to call from any thread. The search notices within a few thousand nodes and returns what it had finished.
+	 * Only the search running at the time is stopped, with no search running it does nothing
+	 * @return The best result finished so far, the first legal move if no depth finished yet, null if nothing was ever searched
+	 */
+	public SearchResult stop(){
+		synchronized(stopLock){
+			if(searching) stopped=true;
+			return bestSoFar;
+		}
+	}
+
+	/**
+	 * Gets the best result of the running search so far, or of the last search once it is done, safe to call from any thread
+	 * @return The result of the deepest depth finished so far, null if nothing was ever searched
+	 */
+	public SearchResult getBestSoFar(){
+		return bestSoFar;
+	}
+
+	/**
+	 * Records a finished depth of the running search, so it can be handed out if the search is stopped
+	 * @param result The result of the depth
+	 */
+	void report(SearchResult result){
+		bestSoFar=result;
+	}
+
+	/**
+	 * Lazy SMP: the helpers search the same root at the same time as the main thread, and fill the shared table for it.
+	 * The search ends when the main thread finishes
+	 * @param threads    Search state for each thread, the main thread first
+	 * @param board      Current state of the board, it is copied for each thread
+	 * @param player     Pick best move for whom? (WHITE or BLACK)
+	 * @param depth      The desired maximum depth
+	 * @param legalMoves The root moves, used by the main thread, the helpers get copies
+	 * @param millis     Time allowed for the search in milliseconds, 0 for no limit
+	 * @param start      System.nanoTime() when the search started
+	 * @return The main thread's result, unless a helper finished a deeper depth
+	 */
+	private SearchResult searchLazySMP(SearchThread[] threads,Board board,boolean player,int depth,MoveList legalMoves,long millis,long start){
+		ArrayList<ForkJoinTask<SearchResult>> helpers=new ArrayList<>(threads.length-1);
+		for(int i=1; i<threads.length; ++i){
+			final SearchThread helper=threads[i];
+			final Board helperBoard=copyForSearch(board,player);
+			final MoveList helperMoves=new MoveList(legalMoves);
+			helpers.add(getPool().submit(()->helper.iterate(helperBoard,player,depth,helperMoves,millis,start)));
+		}
+		SearchResult best=threads[0].iterate(copyForSearch(board,player),player,depth,legalMoves,millis,start);
+		stopSearch();//the main thread decides when the search is over
+		for(ForkJoinTask<SearchResult> helperTask: helpers){
+			SearchResult helped=helperTask.join();
+			if(helped.getDepth()>best.getDepth()) best=helped;//a helper that got further has the better answer
+		}
+		return best;
+	}
+
+	/**
+	 * Root splitting: each depth, the first root move is searched by the main thread to set a bound,
+	 * then every thread takes root moves from a shared counter on its own board, all trying to beat one shared alpha.
+	 * Simple and good for throughput on shallow searches, but the threads only share work at the root
+	 * @param threads    Search state for each thread, the main thread first
+	 * @param board      Current state of the board, it is copied for each thread
+	 * @param player     Pick best move for whom? (WHITE or BLACK)
+	 * @param depth      The desired maximum depth
+	 * @param legalMoves The root moves, the best one is moved to the front after each depth
+	 * @param millis     Time allowed for the search in milliseconds, 0 for no limit
+	 * @param start      System.nanoTime() when the search started
+	 * @return The principal variation and score of the deepest depth that finished
+	 */
+	private SearchResult searchRootSplit(SearchThread[] threads,Board board,boolean player,int depth,MoveList legalMoves,long millis,long start){
+		Board[] boards=new Board[threads.length];
+		for(int i=0; i<threads.length; ++i){
+			boards[i]=copyForSearch(board,player);
+		}
+		ArrayList<ForkJoinTask<Integer>> tasks=new ArrayList<>(threads.length-1);
+		final AtomicInteger next=new AtomicInteger(),alpha=new AtomicInteger();
+		MoveList pv=new MoveList();
+		pv.add(legalMoves.get(0));
+		int bestScore=0,completed=0;
+		for(int iteration=1; iteration<=depth; ++iteration){
+			final int iterationDepth=iteration;
+			int best=threads[0].searchRootMove(boards[0],player,iteration,legalMoves.get(0),-INFINITY,INFINITY,true);//the bound the other moves have to beat
+			next.set(1);
+			alpha.set(best);
+			tasks.clear();
+			for(int i=1; i<threads.length; ++i){
+				final SearchThread helper=threads[i];
+				final Board helperBoard=boards[i];
+				tasks.add(getPool().submit(()->helper.searchSharedRoot(helperBoard,player,iterationDepth,legalMoves,next,alpha,-INFINITY)));
 			}
-		}else{//BLACK is the minimizing player
-			for(int i=1; i<scores.size(); ++i){
-				if(scores.get(i)<bestScore){//find the minimal score and select its move
-					bestScore=scores.get(i);
-					bestMove=legalMoves.get(i);
+			SearchThread bestThread=threads[0];
+			best=threads[0].searchSharedRoot(boards[0],player,iteration,legalMoves,next,alpha,best);
+			for(int i=1; i<threads.length; ++i){
+				int score=tasks.get(i-1).join();
+				if(score>best){
+					best=score;
+					bestThread=threads[i];
 				}
 			}
+			if(stopped) break;//a partly searched depth might have missed the real best move
+			bestScore=best;
+			completed=iteration;
+			pv=bestThread.getPV();
+			report(new SearchResult(pv,bestScore,completed,countNodes(threads),System.nanoTime()-start));
+			for(int i=0; i<legalMoves.size(); ++i){
+				if(legalMoves.get(i)==pv.get(0)) legalMoves.swap(0,i);//searched first next time
+			}
+			if(millis>0 && (System.nanoTime()-start)*2>millis*1_000_000) break;//the next depth takes several times longer, don't start what can't finish
 		}
-		System.out.println("Nodes: "+nodes);
-		return bestMove;
+		return new SearchResult(pv,bestScore,completed,countNodes(threads),System.nanoTime()-start);
 	}
 
 	/**
-	 * Generates all possible moves, split them up between all threads.
-	 * Then returns the move with the best score after scoring to the default maximum depth.
-	 * @param board  Current state of the board for the search
-	 * @param player Pick best move for whom? (WHITE or BLACK)
-	 * @return Encoded move integer
+	 * Young Brothers Wait Concept: the main thread searches as usual, and at every node with enough depth left,
+	 * once the first move is searched, the rest are shared with any idle threads. A cutoff stops everyone working on that node.
+	 * This keeps scaling where the threads sharing only the table start searching the same nodes
+	 * @param threads    Search state for each thread, the main thread first, the rest wait to be recruited
+	 * @param board      Current state of the board, it is copied for the main thread
+	 * @param player     Pick best move for whom? (WHITE or BLACK)
+	 * @param depth      The desired maximum depth
+	 * @param legalMoves The root moves
+	 * @param millis     Time allowed for the search in milliseconds, 0 for no limit
+	 * @param start      System.nanoTime() when the search started
+	 * @return The principal variation and score of the deepest depth that finished
 	 */
-	public int getBestMove(Board board,boolean player){
-		return getBestMove(board,player,maxDepth);
+	private SearchResult searchYBWC(SearchThread[] threads,Board board,boolean player,int depth,MoveList legalMoves,long millis,long start){
+		idle.clear();
+		for(int i=1; i<threads.length; ++i){
+			idle.add(threads[i]);
+		}
+		SearchResult result=threads[0].iterate(copyForSearch(board,player),player,depth,legalMoves,millis,start);
+		idle.clear();//every split point is joined before its node returns, so no helper is still running
+		return result;
 	}
 
 	/**
-	 * Gets the score of the board by searching possible moves, usually called after a move
-	 * Initial call should set alpha to a very low value and beta to a very high value
-	 * @param board The current board
-	 * @param team  Who's turn? WHITE or BLACK
-	 * @param depth How many more levels to search
-	 * @param alpha Best score for WHITE
-	 * @param beta  Best score for BLACK
-	 * @return integer score (higher score favors WHITE)
+	 * Checks if a node could be split, there has to be an idle thread to help
+	 * @return True in YBWC mode with an idle thread
 	 */
-	public int minimax(Board board,boolean team,int depth,int alpha,int beta){
-		/*
-		Get all moves after this move, store them
-		Score them
-		sort them by score
-		search best move first (recall from storage, don't recompute)
-		 */
-		++nodes;
-		if(depth<=0) return score(board);//if at end of search, then return the score here
-		ArrayList<Integer> moves=getMoves(board,team);//call the move generator
-		if(moves.isEmpty()) return score(board);//if no moves present, return this board position score
-		Board movedBoard=boardArr[depth];//get reference to the pre-allocated board array
-		int bestScore;
-		if(team==WHITE){//WHITE is maximizing player
-			if(isCheckmateFast(board,WHITE,moves)) return Integer.MIN_VALUE;//if WHITE is checkmated, Min score favors BLACK
-			bestScore=Integer.MIN_VALUE;//have not found a good move yet, pick the worst possible case for now
-			for(int i=0; i<moves.size() && alpha<beta; ++i){
-				movedBoard.loadState(board);
-				movedBoard.makeMove(moves.get(i));//load and move to avoid creating new boards all the time
-				bestScore=Math.max(bestScore,minimax(movedBoard,BLACK,depth-1,alpha,beta));
-				alpha=Math.max(alpha,bestScore);//store the maximal found score
-			}
-		}else{//BLACK is minimizing player
-			if(isCheckmateFast(board,BLACK,moves)) return Integer.MAX_VALUE;//if BLACK is checkmated, Max score favors WHITE
-			bestScore=Integer.MAX_VALUE;//have not found a good move yet, go with worst option for now
-			for(int i=0; i<moves.size() && alpha<beta; ++i){
-				movedBoard.loadState(board);
-				movedBoard.makeMove(moves.get(i));//load and move to avoid creating new boards all the time
-				bestScore=Math.min(bestScore,minimax(movedBoard,WHITE,depth-1,alpha,beta));
-				beta=Math.min(beta,bestScore);//best minimal found score
+	boolean canSplit(){
+		return parallelMode==YBWC && !idle.isEmpty();
+	}
+
+	/**
+	 * Puts every idle thread to work on a split point, each goes back to being idle when it runs out of moves there
+	 * @param split The split point, the helpers are added to it so its owner can wait for them
+	 */
+	void recruit(SplitPoint split){
+		SearchThread helper;
+		while((helper=idle.poll())!=null){
+			final SearchThread worker=helper;
+			split.addHelper(getPool().submit(()->{
+				worker.helpSplit(split);
+				idle.add(worker);
+			}));
+		}
+	}
+
+	/**
+	 * Checks if the search was told to stop
+	 * @return True if it has to stop
+	 */
+	boolean isStopped(){
+		return stopped;
+	}
+
+	/**
+	 * Sets how the search is split between the threads, takes effect from the next search
+	 * @param mode SEQUENTIAL, LAZY_SMP, ROOT_SPLIT or YBWC
+	 */
+	public void setParallelMode(int mode){
+		parallelMode=mode;
+	}
+
+	/**
+	 * Gets how the search is split between the threads
+	 * @return SEQUENTIAL, LAZY_SMP, ROOT_SPLIT or YBWC
+	 */
+	public int getParallelMode(){
+		return parallelMode;
+	}
+
+	/**
+	 * Turns late move reductions on or off, takes effect from the next search
+	 * @param enabled True to reduce late quiet moves, the default
+	 */
+	public void setLateMoveReductions(boolean enabled){
+		lateMoveReductions=enabled;
+	}
+
+	/**
+	 * Checks if late quiet moves are searched less deeply
+	 * @return True if late move reductions are on
+	 */
+	public boolean getLateMoveReductions(){
+		return lateMoveReductions;
+	}
+
+	/**
+	 * Turns aspiration windows on or off, takes effect from the next search
+	 * @param enabled True to open each depth with a narrow window, the default
+	 */
+	public void setAspirationWindows(boolean enabled){
+		aspirationWindows=enabled;
+	}
+
+	/**
+	 * Checks if each depth starts with a narrow window around the last score
+	 * @return True if aspiration windows are on
+	 */
+	public boolean getAspirationWindows(){
+		return aspirationWindows;
+	}
+
+	/**
+	 * Turns null move pruning on or off, takes effect from the next search
+	 * @param enabled True to try passing to prove cutoffs, the default
+	 */
+	public void setNullMovePruning(boolean enabled){
+		nullMovePruning=enabled;
+	}
+
+	/**
+	 * Checks if the search tries passing to prove cutoffs
+	 * @return True if null move pruning is on
+	 */
+	public boolean getNullMovePruning(){
+		return nullMovePruning;
+	}
+
+	/**
+	 * Copies a board for one search thread, the caller's board is left alone
+	 * @param board  The board to copy
+	 * @param player Who is moving, the hash includes the side to move so it has to match who is searched for
+	 * @return A new board
+	 */
+	private static Board copyForSearch(Board board,boolean player){
+		Board copy=new Board(board);
+		copy.setTurn(player);
+		return copy;
+	}
+
+	/**
+	 * Adds up the nodes every thread searched so far in this search
+	 * @param threads The search threads
+	 * @return Number of nodes
+	 */
+	private static long countNodes(SearchThread[] threads){
+		long count=0;
+		for(SearchThread thread: threads){
+			count+=thread.getNodes();
+		}
+		return count;
+	}
+
+	/**
+	 * Gets the search threads, making them the first time, one per maxThreads
+	 * @return The threads, the main one first
+	 */
+	private SearchThread[] getSearchThreads(){
+		if(searchThreads==null){
+			searchThreads=new SearchThread[Math.max(1,maxThreads)];
+			for(int i=0; i<searchThreads.length; ++i){
+				searchThreads[i]=new SearchThread(this,i,maxDepth);
 			}
 		}
-		return bestScore;
+		return searchThreads;
+	}
+
+	/**
+	 * Adds to the node count shared by every search thread and checks the time and node limits, called every so often by each thread
+	 * @param count How many nodes the thread searched since it last called this
+	 * @return True if the search has to stop
+	 */
+	boolean checkLimits(long count){
+		if(sharedNodes.addAndGet(count)>=nodeLimit || System.nanoTime()>=deadline) stopped=true;
+		return stopped;
+	}
+
+	/** Tells every search thread to stop, they notice the next time they check the limits */
+	void stopSearch(){
+		stopped=true;
+	}
+
+	/**
+	 * Gets how many nodes the last search looked at
+	 * @return Number of nodes
+	 */
+	public long getNodes(){
+		return nodes;
+	}
+
+	/**
+	 * Works out how long to spend on one move from the time left on the clock
+	 * @param clock     Milliseconds left on this player's clock
+	 * @param increment Milliseconds added to the clock after each move
+	 * @return Milliseconds to spend on this move
+	 * @see SearchLimits#fromClock(long,long)
+	 */
+	public static long allocateTime(long clock,long increment){
+		long budget=clock/30+increment*3/4;//plan for about 30 more moves, and spend most of the increment
+		return Math.max(1,Math.min(budget,clock-clock/10));//never use the last part of the clock
+	}
+
+	/**
+	 * Searches to the default maximum depth.
+	 * Then returns the move with the best score after scoring to the default maximum depth.
+	 * @param board  Current state of the board for the search
+	 * @param player Pick best move for whom? (WHITE or BLACK)
+	 * @return Encoded move integer
+	 */
+	public int getBestMove(Board board,boolean player){
+		return getBestMove(board,player,maxDepth);
 	}
 
 	/**
@@ -323,11 +762,7 @@ public class Engine{
 		moveGen=new MoveGenerator();
 		maxDepth=depth;
 		maxThreads=threads;
-		boardArr=new Board[maxDepth];
-		checkMateBoard=new Board(Board.CLEAR);
-		for(int i=0; i<maxDepth; ++i){//pre-allocate the space for minimax boards
-			boardArr[i]=new Board(Board.CLEAR);
-		}
+		checkMateMoves=new MoveList();
 		/*
 		load/calculate score table
 		pre-calculate attack squares
@@ -1,6 +1,5 @@
 package com.dalton.ChessEngine;
 
-import java.util.ArrayList;
 import java.util.Scanner;
 import java.util.Stack;
 
@@ -10,7 +9,7 @@ import static com.dalton.ChessEngine.Types.*;
 /**
  * The Game controller
  * @author Dalton Herrewynen
- * @version 0.3
+ * @version 0.4
  */
 public class GameController{
 	Scanner scanner;
@@ -24,6 +23,7 @@ public class GameController{
 	int turns, halfMoveClock;//how many turns and how many moves since a capture or pawn advance
 	int WhiteAILevel;
 	int BlackAILevel;
+	long AIMoveTime;//most milliseconds the AI may think about one move, so a deep level can't hang the game
 
 	/** Runs the game */
 	public void startPrimaryLoop(){
@@ -112,7 +112,10 @@ public class GameController{
 	 */
 	public boolean makeAiMove(){
 		System.out.println("Making AI move");
-		int move=engine.getBestMove(new Board(board),playerColor,(playerColor==WHITE)? WhiteAILevel : BlackAILevel);//Tell the engine what maximum depth to search
+		SearchLimits limits=new SearchLimits((playerColor==WHITE)? WhiteAILevel : BlackAILevel,0,AIMoveTime,0);//Tell the engine what maximum depth to search, and how long it has
+		SearchResult result=engine.search(new Board(board),playerColor,limits);
+		System.out.println(result);//depth, score, nodes, time and the line the engine expects
+		int move=result.getBestMove();
 		System.out.println("Player: "+Types.getTeamString(playerColor)+": "+PGNConverter.getPGN(board,move)+": "+Move.describe(move));
 		if(Move.isBlank(move)) return false;//if no legal moves found, flag error
 		makeMove(move);//if a move was not blank, make it
@@ -150,7 +153,7 @@ public class GameController{
 			System.out.println("Making PGN move");
 			return makePGNMove(move.substring(3));//spaghetti code, just chops off the switch phrase "PGN"
 		}
-		ArrayList<Integer> legalMoves;
+		MoveList legalMoves;
 		Coord start=new Coord(move), end=new Coord();
 		while(start.isSet()==UNSET || board.getSquare(start.getIndex())==Blank || PieceCode.decodeTeam(board.getSquare(start.getIndex()))!=playerColor){//loop until the player selects one of their pieces
 			if(move.equalsIgnoreCase("-show")) showBoard();
@@ -338,6 +341,7 @@ public class GameController{
 		}else{
 			res+="Human/Terminal";
 		}
+		res+="\nAI time limit: "+AIMoveTime+" ms";
 		System.out.println(res);
 	}
 
@@ -417,6 +421,7 @@ public class GameController{
 		isBlackAI=false;
 		WhiteAILevel=4;
 		BlackAILevel=4;
+		AIMoveTime=10_000;
 		scanner=new Scanner(System.in);
 		engine=new Engine(1,30);//old game used 4, 10, and 30 as depth level
 		System.out.println("Game initialized");
@@ -1,7 +1,5 @@
 package com.dalton.ChessEngine;
 
-import java.util.ArrayList;
-
 import static com.dalton.ChessEngine.PieceCode.*;
 import static com.dalton.ChessEngine.Types.*;
 
@@ -124,7 +122,7 @@ public class King extends Piece{
 	 * @param position The position index to check from
 	 */
 	@Override
-	public void getMoves(ArrayList<Integer> moves,final long enemies,final long blanks,final int position){
+	public void getMoves(MoveList moves,final long enemies,final long blanks,final int position){
 		//Check each direction
 		for(int[] dir: offset){
 			int destIndex=Coord.shiftIndex(position,dir[0],dir[1]);
@@ -142,7 +140,7 @@ public class King extends Piece{
 	 * @param board The current state of the board
 	 * @param moves The list of moves to add any castling moves onto
 	 */
-	public void getCastles(Board board,ArrayList<Integer> moves){
+	public void getCastles(Board board,MoveList moves){
 		if(board.hasNotMoved(startingIndex) && !isInCheck(board,startingIndex)){//no castling if moved or in check
 			//Checking the queenside
 			int rookPos=Coord.XYToIndex(0,Coord.indexToY(startingIndex));//get the rook for this side
@@ -165,23 +163,8 @@ public class King extends Piece{
 	 * @param position Where this King is located on the board
 	 * @return True if the King is in check, False otherwise
 	 */
-	public boolean isInCheck(Board board,int position){//todo change this to use an attacking mask for speed, ray cast from king instead of checking all enemy moves
-		//Check if any enemy pieces can can attack the King's position
-		for(int piece=(!team)? 0 : 1; piece<PieceCode.KingW; piece+=2){//get all pieces for other team by integer code
-			final long theirEnemies=board.alliedPieceMask(team);//get this team as the other's enemies
-			final long blanks=~(theirEnemies | board.alliedPieceMask(!team));//get all squares that are blank
-			int pieceIndex=Coord.maskToIndex(board.searchPiece(piece));//locate the piece
-			while(pieceIndex!=Coord.ERROR_INDEX){//while there is a piece to find
-				ArrayList<Integer> enemyMoves=new ArrayList<>();
-				PieceCode.pieceObj(piece).getMoves(enemyMoves,theirEnemies,blanks,pieceIndex);//Get the legal moves from the enemy piece
-				//todo Filter out pieces via bit masking
-				for(int enemyMove: enemyMoves){//Check if any enemy move ends at the King's position
-					if(Move.getEndIndex(enemyMove)==position) return true; //King is in check
-				}
-				pieceIndex=Coord.maskToNextIndex(board.searchPiece(piece),pieceIndex);//iterator
-			}
-		}
-		return false;//King is not in check
+	public boolean isInCheck(Board board,int position){
+		return MoveGenerator.isSquareAttacked(board,position,!team);//ray cast outwards from the King's square instead of checking all enemy moves
 	}
 
 	/**
@@ -195,4 +178,13 @@ public class King extends Piece{
 	public long attackMask(final long enemies,final long blanks,final int pos){
 		return attackMask[pos]&(enemies|blanks);//take attacking mask and only attack pieces that are blank or enemies
 	}
+
+	/**
+	 * Gets every square a King on this square attacks, no matter what is on them
+	 * @param pos The integer position index
+	 * @return a 64-bit integer bit mask
+	 */
+	public static long attacks(final int pos){
+		return attackMask[pos];
+	}
 }
@@ -1,7 +1,5 @@
 package com.dalton.ChessEngine;
 
-import java.util.ArrayList;
-
 import static com.dalton.ChessEngine.Types.*;
 
 /**
@@ -130,7 +128,7 @@ public class Knight extends Piece{
 	 * @param position The position index to check from
 	 */
 	@Override
-	public void getMoves(ArrayList<Integer> moves,final long enemies,final long blanks,final int position){
+	public void getMoves(MoveList moves,final long enemies,final long blanks,final int position){
 		//Check each direction
 		for(int[] dir: offset){
 			int destIndex=Coord.shiftIndex(position,dir[0],dir[1]);
@@ -151,4 +149,13 @@ public class Knight extends Piece{
 	public long attackMask(final long enemies,final long blanks,final int pos){
 		return attackMask[pos]&(blanks|enemies);//take attacking mask and only attack pieces that are blank or enemies
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Gets every square a Knight on this square attacks, no matter what is on them
+	 * @param pos The integer position index
+	 * @return a 64-bit integer bit mask
+	 */
+	public static long attacks(final int pos){
+		return attackMask[pos];
+	}
+}
@@ -0,0 +1,156 @@
+package com.dalton.ChessEngine;
+
+import static com.dalton.ChessEngine.Types.*;
+
+/**
+ * Pre-computed attack tables for the sliding pieces (Rook, Bishop and Queen) using magic bitboards.<br/>
+ * Each square has a mask of the squares that can block it (board edges left off), multiplying the blockers by a magic
+ * number and shifting packs them into a unique index, so every lookup is one multiply, one shift and one array load.
+ * @author Dalton Herrewynen
+ * @version 1
+ */
+public abstract class MagicBitboard{//class can't be instantiated, but it has static helper methods
+	/** Directions the sliders move in as {x,y} pairs */
+	private static final int[][] HVDirections={{1,0},{-1,0},{0,1},{0,-1}}, diagDirections={{1,1},{-1,1},{1,-1},{-1,-1}};
+	/** Magic multipliers for the Rook, one per square, found by a brute force search with a fixed seed */
+	private static final long[] rookMagic={
+			0xC680026118804000L,0x0280200140008010L,0xD080100020000880L,0x0100040900100020L,
+			0x86000C1200502008L,0x0A00020004100188L,0x0080020001000080L,0x0200008040240201L,
+			0x4092800024400080L,0x0442400020005000L,0x0402802002100088L,0x0041800800801004L,
+			0x1022808004004800L,0x0408808004000200L,0x1042000104080200L,0x000200210200804CL,
+			0x00C6688000894000L,0x8000810021004008L,0x0001010020001041L,0x0000120042000820L,
+			0x1030050008001100L,0x5224008002000480L,0x1521010100040200L,0x00000A00006C8504L,
+			0x8000800080204001L,0x0400400280200091L,0x88A0200080801000L,0x4060080080801000L,
+			0x0004008080080006L,0x5104000480260080L,0x4000040101000200L,0x181004020000834DL,
+			0x000080C002800020L,0x0020004001010080L,0x0000802000801008L,0x0088080480801000L,
+			0x0C00040801001100L,0x2011001803000400L,0x0202004422000801L,0x2140404082000401L,
+			0x0080104020094000L,0xC008482010004001L,0xC020100020008080L,0x0202210110050008L,
+			0x6008008004008008L,0x0042102004080140L,0x0801040200010100L,0x0A000040B102000CL,
+			0x4610420100208200L,0x141040208A011200L,0x0430001080200080L,0x8181000810002100L,
+			0x0025440082480080L,0x2025808200040080L,0x0008100201480400L,0x0080008908440200L,
+			0x2002942080004101L,0x0400802102164001L,0x8000090210200041L,0x0106000410084022L,
+			0x0002000810210402L,0x0002001001084482L,0x0006004804010082L,0x0010040030408902L};
+	/** Magic multipliers for the Bishop, one per square, found by a brute force search with a fixed seed */
+	private static final long[] bishopMagic={
+			0x0448221084010208L,0x601404280E012200L,0x40064C0400800400L,0x0884042480000009L,
+			0x00040420880C0854L,0x0042018420100000L,0x4400421010080000L,0x20022080441040A1L,
+			0x1484905001110400L,0x0886040108120480L,0x0080500100450AA0L,0x0002844400800005L,
+			0x00221C1420822408L,0x4205220804050000L,0x880006014402C00EL,0x0000020064040400L,
+			0xC008422020840080L,0x0424833030008100L,0x0024801000AE0040L,0x408C000801445008L,
+			0x3455010490400004L,0x000580211000A000L,0x0040509918084401L,0x8006001023340200L,
+			0xC060481820080180L,0x0002200008080080L,0x1022480121020400L,0x2022002018040840L,
+			0x4001010000104001L,0x9045050002024110L,0x000114088200B402L,0xC00F0242420A04C0L,
+			0x0C01104000480890L,0x0000880410091000L,0x0001044802010800L,0x00010100400C0402L,
+			0x2240010804010040L,0x8050011040020040L,0x019050C201010100L,0x8008810216410080L,
+			0x2044012010000814L,0x1044420804996000L,0x0C02010402030100L,0x1040042018008901L,
+			0x000A080103108400L,0x1001A00892800900L,0x1008210410800400L,0x005000A103000044L,
+			0x000C0C042404200CL,0x8008908801100810L,0x400003040144000CL,0x1400011084040801L,
+			0x40110010820A1801L,0x0800080208020401L,0x0210021808608040L,0x0004441424082060L,
+			0x0240240048281800L,0x00B403084A222013L,0x040000402A011000L,0x0004001100208802L,
+			0x0001004020020C80L,0x1100240430820A00L,0x0230404848008080L,0x0088280820404200L};
+	/** Masks of the squares that can block a slider on each square, the edges are left off since they never block anything */
+	private static final long[] rookMask=new long[TOTAL_SQUARES], bishopMask=new long[TOTAL_SQUARES];
+	/** How far to shift the magic product over to get the index, 64 minus the number of bits in the blocker mask */
+	private static final int[] rookShift=new int[TOTAL_SQUARES], bishopShift=new int[TOTAL_SQUARES];
+	/** Where each square's section of the attack table starts */
+	private static final int[] rookOffset=new int[TOTAL_SQUARES], bishopOffset=new int[TOTAL_SQUARES];
+	/** The attack tables, one section per square, indexed by the magic index */
+	private static final long[] rookTable, bishopTable;
+
+	static{//fill the tables once when the class is loaded
+		rookTable=new long[fillMasks(HVDirections,rookMask,rookShift,rookOffset)];
+		bishopTable=new long[fillMasks(diagDirections,bishopMask,bishopShift,bishopOffset)];
+		fillTable(HVDirections,rookMask,rookMagic,rookShift,rookOffset,rookTable);
+		fillTable(diagDirections,bishopMask,bishopMagic,bishopShift,bishopOffset,bishopTable);
+	}
+
+	/**
+	 * Gets every square a Rook can attack from a square, the first piece in each direction is included
+	 * @param pos      The square the Rook is on
+	 * @param occupied Mask of all the occupied squares, both teams
+	 * @return 64-bit integer bit mask
+	 */
+	public static long rookAttacks(final int pos,final long occupied){
+		return rookTable[rookOffset[pos]+(int) (((occupied & rookMask[pos])*rookMagic[pos]) >>> rookShift[pos])];
+	}
+
+	/**
+	 * Gets every square a Bishop can attack from a square, the first piece in each direction is included
+	 * @param pos      The square the Bishop is on
+	 * @param occupied Mask of all the occupied squares, both teams
+	 * @return 64-bit integer bit mask
+	 */
+	public static long bishopAttacks(final int pos,final long occupied){
+		return bishopTable[bishopOffset[pos]+(int) (((occupied & bishopMask[pos])*bishopMagic[pos]) >>> bishopShift[pos])];
+	}
+
+	/**
+	 * Gets every square a Queen can attack from a square, just the Rook and Bishop lookups combined
+	 * @param pos      The square the Queen is on
+	 * @param occupied Mask of all the occupied squares, both teams
+	 * @return 64-bit integer bit mask
+	 */
+	public static long queenAttacks(final int pos,final long occupied){
+		return rookAttacks(pos,occupied) | bishopAttacks(pos,occupied);
+	}
+
+	/**
+	 * Fills the blocker masks and shifts, and lays out where each square's section goes in the table
+	 * @param directions The directions this slider moves in
+	 * @param masks      Blocker masks to fill
+	 * @param shifts     Shift amounts to fill
+	 * @param offsets    Table offsets to fill
+	 * @return The total table size needed
+	 */
+	private static int fillMasks(final int[][] directions,long[] masks,int[] shifts,int[] offsets){
+		int size=0;
+		for(int pos=0; pos<TOTAL_SQUARES; ++pos){
+			masks[pos]=walkRays(directions,pos,0,false);
+			shifts[pos]=TOTAL_SQUARES-Long.bitCount(masks[pos]);
+			offsets[pos]=size;
+			size+=1 << Long.bitCount(masks[pos]);//one entry for every combination of blockers
+		}
+		return size;
+	}
+
+	/**
+	 * Fills the attack table by walking the rays for every combination of blockers on every square, only done at start up
+	 * @param directions The directions this slider moves in
+	 * @param masks      Blocker masks
+	 * @param magics     Magic multipliers
+	 * @param shifts     Shift amounts
+	 * @param offsets    Table offsets
+	 * @param table      The attack table to fill
+	 */
+	private static void fillTable(final int[][] directions,final long[] masks,final long[] magics,final int[] shifts,final int[] offsets,long[] table){
+		for(int pos=0; pos<TOTAL_SQUARES; ++pos){
+			long blockers=0;
+			do{//walk every subset of the mask (Carry-Rippler trick)
+				table[offsets[pos]+(int) ((blockers*magics[pos]) >>> shifts[pos])]=walkRays(directions,pos,blockers,true);
+				blockers=(blockers-masks[pos]) & masks[pos];
+			}while(blockers!=0);
+		}
+	}
+
+	/**
+	 * The slow way of finding slider squares, walks each ray one square at a time, only used to build the tables
+	 * @param directions  Directions to walk
+	 * @param pos         Starting square
+	 * @param blockers    Mask of pieces which stop the ray
+	 * @param attackEdges True to get the attack mask (stops on and includes a blocker), False to get the blocker mask (no edges)
+	 * @return 64-bit integer bit mask
+	 */
+	private static long walkRays(final int[][] directions,final int pos,final long blockers,final boolean attackEdges){
+		long mask=0;
+		for(int[] dir: directions){
+			int x=Coord.indexToX(pos)+dir[0], y=Coord.indexToY(pos)+dir[1];
+			while(Coord.isCoordValid(x,y) && (attackEdges || Coord.isCoordValid(x+dir[0],y+dir[1]))){//blocker masks stop one short of the edge
+				mask|=1L << Coord.XYToIndex(x,y);
+				if(0!=(blockers & (1L << Coord.XYToIndex(x,y)))) break;//stop on the first blocker
+				x+=dir[0];
+				y+=dir[1];
+			}
+		}
+		return mask;
+	}
+}
@@ -1,11 +1,20 @@
 package com.dalton.ChessEngine;
+
+import java.util.Arrays;
+
+import static com.dalton.ChessEngine.Types.*;
+
 /**
  * The central boot loading class for this project
  * @author Dalton Herrewynen
- * @version 1
+ * @version 2
  */
 public class Main{
 	public static void main(String[] args){
+		if(args.length>0 && args[0].equalsIgnoreCase("perft")){//perft <depth> [divide] [hash <MB>] [FEN]
+			perft(args);
+			return;
+		}
 		GameController game=new GameController();
 		game.startPrimaryLoop();
 		/*game.makeAiMove();
@@ -18,4 +27,37 @@ public class Main{
 		game.flipPlayer();*/
 		game.printHistory();
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Runs perft from the command line and prints the results, arguments are: perft &lt;depth&gt; [divide] [hash &lt;MB&gt;] [FEN]<br/>
+	 * The FEN uses this engine's lowercase for WHITE, leaving it out starts from the normal starting position
+	 * @param args Command line arguments
+	 */
+	private static void perft(String[] args){
+		int depth=(args.length>1)? Integer.parseInt(args[1]) : 5, i=2, hashSize=0;
+		boolean divide=false, team=WHITE;
+		while(args.length>i){//options come before the FEN
+			if(args[i].equalsIgnoreCase("divide")){
+				divide=true;
+				++i;
+			}else if(args[i].equalsIgnoreCase("hash") && args.length>i+1){
+				hashSize=Integer.parseInt(args[i+1]);//table size in megabytes
+				i+=2;
+			}else break;
+		}
+		Board board=new Board(Board.DEFAULT);
+		if(args.length>i){//everything left over is the FEN, the shell splits it on spaces
+			String[] fields=Arrays.copyOf(Arrays.copyOfRange(args,i,args.length),4);
+			final String[] defaults={"","w","-","-"};//WHITE to move, no castling and no en passant when left out
+			for(int field=1; field<fields.length; ++field){
+				if(fields[field]==null) fields[field]=defaults[field];
+			}
+			board=PGNConverter.applyFEN(String.join(" ",fields));
+			team=fields[1].equalsIgnoreCase("w");
+		}
+		Engine engine=new Engine(Runtime.getRuntime().availableProcessors(),depth);
+		Perft result=(hashSize>0)? engine.perft(board,team,depth,hashSize) : engine.perft(board,team,depth);
+		if(divide) System.out.print(result.divide());
+		System.out.println(result);
+	}
+}
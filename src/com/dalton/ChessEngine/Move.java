@@ -1,7 +1,5 @@
 package com.dalton.ChessEngine;
 
-import java.util.ArrayList;
-
 import static com.dalton.ChessEngine.Types.*;
 
 /**
@@ -170,7 +168,7 @@ public abstract class Move{//class can't be instantiated, but it has static help
 	 * @param moves list of moves encoded into integers
 	 * @return 64 bit mask
 	 */
-	public static long destinationsToMask(ArrayList<Integer> moves){
+	public static long destinationsToMask(MoveList moves){
 		long mask=0;
 		for(int i=0; i<moves.size(); ++i){//Old style loops are sometimes slightly faster than enhanced for loops
 			if(isBlank(moves.get(i))) continue;//skip blank moves, so we don't flag the 0 space by accident
@@ -185,7 +183,7 @@ public abstract class Move{//class can't be instantiated, but it has static help
 	 * @param index the destination index
 	 * @return Blank move if not found, the move if found
 	 */
-	public static int findMoveByDest(ArrayList<Integer> moves,int index){
+	public static int findMoveByDest(MoveList moves,int index){
 		for(int i=0; i<moves.size(); ++i){//Old style loops are sometimes slightly faster than enhanced for loops
 			if(getEndIndex(moves.get(i))==index) return moves.get(i);//found a match, return it
 		}
@@ -198,8 +196,8 @@ public abstract class Move{//class can't be instantiated, but it has static help
 	 * @param index the starting index
 	 * @return Empty list if nothing matches, or a list of matching moves
 	 */
-	public static ArrayList<Integer> findMovesByStart(ArrayList<Integer> moves,int index){
-		ArrayList<Integer> found=new ArrayList<>();
+	public static MoveList findMovesByStart(MoveList moves,int index){
+		MoveList found=new MoveList(moves.size());
 		for(int i=0; i<moves.size(); ++i){//Old style loops are sometimes slightly faster than enhanced for loops
 			if(getStartIndex(moves.get(i))==index) found.add(moves.get(i));//found a match, add it
 		}
@@ -246,6 +244,17 @@ public abstract class Move{//class can't be instantiated, but it has static help
 		return getSpecialCode(move)==blankMove;
 	}
 
+	/**
+	 * Writes the move in long algebraic notation (start square, end square, promotion letter), the form perft tools print
+	 * @param move the move to convert
+	 * @return String like "e2e4" or "a7a8q"
+	 */
+	public static String toLongAlgebraic(int move){
+		String res=Coord.indexToPGN(getStartIndex(move))+Coord.indexToPGN(getEndIndex(move));
+		if(isPawnPromotion(move)) res+=charLowercase(PieceCode.decodeChar(getPieceCode(move)));//always lowercase, no matter which team
+		return res;
+	}
+
 	/**
 	 * Prints human-readable info about the move
 	 * @param move the move to decode
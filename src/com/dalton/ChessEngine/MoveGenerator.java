@@ -5,51 +5,163 @@ import static com.dalton.ChessEngine.Types.*;
 /**
  * All move generation logic
  * @author Dalton Herrewynen
- * @version 0
+ * @version 1.2
  */
 public class MoveGenerator{
-	long pawnMoves=0;
-	long pawnLeftAttacks=0,pawnRightAttacks=0;
-	int[] castling={0,0};
-	long[] attackMask={0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0};//16 masks for 16 pieces
-	int[] pieceIndicies={0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0};//16 locations for 16 pieces
+	/** Length of the scratch array staticExchange needs, there can't be more than 32 captures on one square */
+	public static final int EXCHANGE_LENGTH=32;
+	/** Pieces in the order they join an exchange, least valuable first, as WHITE codes */
+	private static final int[] EXCHANGE_ORDER={PieceCode.PawnW,PieceCode.KnightW,PieceCode.BishopW,PieceCode.RookW,PieceCode.QueenW,PieceCode.KingW};
+	/** Squares strictly between two squares sharing a line, Arranged[from][to], 0 if they do not share a line */
+	private static final long[][] betweenMask=new long[TOTAL_SQUARES][TOTAL_SQUARES];
+	/** The whole line (edge to edge) running through two squares, Arranged[from][to], 0 if they do not share a line */
+	private static final long[][] lineMask=new long[TOTAL_SQUARES][TOTAL_SQUARES];
+
+	static{
+		long fromMask,toMask;
+		for(int from=0; from<TOTAL_SQUARES; ++from){
+			fromMask=1L << from;
+			for(int to=0; to<TOTAL_SQUARES; ++to){
+				toMask=1L << to;
+				if(from==to) continue;
+				if(0!=(MagicBitboard.rookAttacks(from,0) & toMask)){//same rank or file, the two rays meet on the squares between them
+					betweenMask[from][to]=MagicBitboard.rookAttacks(from,toMask) & MagicBitboard.rookAttacks(to,fromMask);
+					lineMask[from][to]=(MagicBitboard.rookAttacks(from,0) & MagicBitboard.rookAttacks(to,0)) | fromMask | toMask;
+				}else if(0!=(MagicBitboard.bishopAttacks(from,0) & toMask)){//same diagonal
+					betweenMask[from][to]=MagicBitboard.bishopAttacks(from,toMask) & MagicBitboard.bishopAttacks(to,fromMask);
+					lineMask[from][to]=(MagicBitboard.bishopAttacks(from,0) & MagicBitboard.bishopAttacks(to,0)) | fromMask | toMask;
+				}
+			}
+		}
+	}
 
 	public MoveGenerator(){
 	}
 
 	/**
-	 * Fills bitboard lists with move data
-	 * @param board Current state of the board
-	 * @param team  WHITE or BLACK
+	 * Generates the pushes, double moves, captures and promotions for a whole set of pawns at once by shifting the pawn bitboard
+	 * @param moves   The list to add the moves onto
+	 * @param pawns   Mask of the pawns to move
+	 * @param team    WHITE or BLACK
+	 * @param enemies Mask of enemy squares
+	 * @param blanks  Mask of blank squares
+	 * @param targets Mask of allowed destinations, used to keep only moves that get out of check or stay pinned
 	 */
-	public void generateMoves(Board board,boolean team){
-		int index,pieceSerial=0,i=(team==WHITE)?0:1;
-		long positions;
-		long enemies=board.alliedPieceMask(!team),
-				blanks=~(enemies | board.alliedPieceMask(team));
-
-		//generate all pawn Moves in one shot
+	public static void generatePawnMoves(MoveList moves,final long pawns,boolean team,final long enemies,final long blanks,final long targets){
+		final int pawn=(team==WHITE)? PieceCode.PawnW : PieceCode.PawnB;
+		long pushes,doubles,leftAttacks,rightAttacks,lastRank;
+		int forward;//how far the index moves for one step forward
 		if(team==WHITE){
-			pawnMoves=blanks&(board.searchPiece(0)<<8);//shift all pawns up 1 (over 8) and only take blank spaces
-			pawnMoves|=blanks&((board.searchPiece(0)&Pawn.BLACK_Promotion_mask)<<16);//double move on starting rank (opposite team's promotion mask)
-			pawnLeftAttacks=enemies&(board.searchPiece(0)<<7);//one less than a full rank
-			pawnRightAttacks=enemies&(board.searchPiece(0)<<9);//one more than a full rank
+			pushes=blanks & (pawns<<8);//shift all pawns up 1 (over 8) and only take blank spaces
+			doubles=blanks & ((pushes & (Pawn.BLACK_Promotion_mask<<8))<<8);//pawns that could step once from the starting rank (opposite team's promotion mask) step again
+			leftAttacks=enemies & ((pawns & ~Pawn.LEFT_FILE_mask)<<7);//one less than a full rank
+			rightAttacks=enemies & ((pawns & ~Pawn.RIGHT_FILE_mask)<<9);//one more than a full rank
+			lastRank=Pawn.WHITE_Promotion_mask<<8;
+			forward=BOARD_SIZE;
 		}else{
-			pawnMoves=blanks&(board.searchPiece(1)>>>8);//shift all pawns down 1 (over 8) and only take blank spaces
-			pawnMoves|=blanks&((board.searchPiece(1)&Pawn.WHITE_Promotion_mask)>>>16);//double move on starting rank (opposite team's promotion mask)
-			pawnLeftAttacks=enemies&(board.searchPiece(1)>>>9);//exactly backwards from the WHITE pawns
-			pawnRightAttacks=enemies&(board.searchPiece(1)>>>7);
+			pushes=blanks & (pawns>>>8);//shift all pawns down 1 (over 8) and only take blank spaces
+			doubles=blanks & ((pushes & (Pawn.WHITE_Promotion_mask>>>8))>>>8);
+			leftAttacks=enemies & ((pawns & ~Pawn.LEFT_FILE_mask)>>>9);//exactly backwards from the WHITE pawns
+			rightAttacks=enemies & ((pawns & ~Pawn.RIGHT_FILE_mask)>>>7);
+			lastRank=Pawn.BLACK_Promotion_mask>>>8;
+			forward=-BOARD_SIZE;
 		}
-		//todo handle promotions here
+		pushes&=targets;
+		doubles&=targets;
+		leftAttacks&=targets;
+		rightAttacks&=targets;
 
-		for(i+=2; i<PieceCode.PIECE_TYPES; i+=2){
-			positions=board.searchPiece(i);//for each piece code
-			index=Coord.maskToIndex(positions);
-			while(index!=Coord.ERROR_INDEX){//search all positions that piece is found at
-				pieceIndicies[pieceSerial]=index;
-				attackMask[pieceSerial]=PieceCode.pieceObj(i).attackMask(enemies,blanks,index);
-				index=Coord.maskToNextIndex(positions,index);//find next location
-				++pieceSerial;//move to next piece's bitboard
+		addPawnMoves(moves,pushes & ~lastRank,Move.normalMove,pawn,forward);
+		addPawnMoves(moves,doubles,Move.pawnDoubleMove,pawn,2*forward);
+		addPawnMoves(moves,leftAttacks & ~lastRank,Move.capture,pawn,forward-1);
+		addPawnMoves(moves,rightAttacks & ~lastRank,Move.capture,pawn,forward+1);
+		addPromotions(moves,pushes & lastRank,Move.normalMove,pawn,forward);
+		addPromotions(moves,leftAttacks & lastRank,Move.capture,pawn,forward-1);
+		addPromotions(moves,rightAttacks & lastRank,Move.capture,pawn,forward+1);
+	}
+
+	/**
+	 * Generates the EnPassant captures for a set of pawns, does not check if the capture uncovers the King
+	 * @param moves     The list to add the moves onto
+	 * @param pawns     Mask of the pawns that may capture
+	 * @param team      WHITE or BLACK
+	 * @param EnPassant The mask holding the only piece that can be captured by EnPassant
+	 */
+	public static void generateEnPassant(MoveList moves,final long pawns,boolean team,final long EnPassant){
+		if(EnPassant==0) return;
+		final long target=(team==WHITE)? EnPassant<<8 : EnPassant>>>8;//the square behind the pawn that double moved
+		long attackers=Pawn.attacks(target,!team) & pawns & ((team==WHITE)? Pawn.WHITE_EnPassant_mask : Pawn.BLACK_EnPassant_mask);//look backwards from the target square
+		while(attackers!=0){
+			moves.add(Move.encode(Move.EnPassantCapture,(team==WHITE)? PieceCode.PawnW : PieceCode.PawnB,Long.numberOfTrailingZeros(attackers),Long.numberOfTrailingZeros(target)));
+			attackers&=attackers-1;
+		}
+	}
+
+	/**
+	 * Turns a mask of pawn destinations into moves, every destination comes from the same offset
+	 * @param moves       The list to add the moves onto
+	 * @param targets     Mask of destinations
+	 * @param specialCode The type of move
+	 * @param pawn        The pawn's piece code
+	 * @param offset      How far the index moved, subtract it from the destination to get the start
+	 */
+	private static void addPawnMoves(MoveList moves,long targets,final int specialCode,final int pawn,final int offset){
+		int end;
+		while(targets!=0){
+			end=Long.numberOfTrailingZeros(targets);
+			moves.add(Move.encode(specialCode,pawn,end-offset,end));
+			targets&=targets-1;//clear the lowest bit
+		}
+	}
+
+	/**
+	 * Turns a mask of pawn destinations on the last rank into all four promotions each
+	 * @param moves       The list to add the moves onto
+	 * @param targets     Mask of destinations
+	 * @param specialCode Normal move or capture code
+	 * @param pawn        The pawn's piece code
+	 * @param offset      How far the index moved, subtract it from the destination to get the start
+	 */
+	private static void addPromotions(MoveList moves,long targets,final int specialCode,final int pawn,final int offset){
+		int end;
+		while(targets!=0){
+			end=Long.numberOfTrailingZeros(targets);
+			for(int j=pawn+2; j<PieceCode.KingW; j+=2){//same team trick as the Pawn class, step by 2 through Rook, Knight, Bishop and Queen
+				moves.add(Move.encode(specialCode | Move.pawnPromote,j,end-offset,end));
+			}
+			targets&=targets-1;
+		}
+	}
+
+	/**
+	 * Generates only the moves that change the material: captures, EnPassant and promotions, for the quiescence search.
+	 * Like Engine.getMoves these are not checked for leaving the King in check
+	 * @param board Current state of the board
+	 * @param team  WHITE or BLACK
+	 * @param moves The list to fill, it is cleared first
+	 */
+	public static void generateCaptures(Board board,boolean team,MoveList moves){
+		moves.clear();
+		final int side=(team==WHITE)? PieceCode.WHITE_OFFSET : PieceCode.BLACK_OFFSET;
+		final long enemies=board.alliedPieceMask(!team),occupied=board.getOccupied(),
+				lastRank=(team==WHITE)? Pawn.WHITE_Promotion_mask<<8 : Pawn.BLACK_Promotion_mask>>>8;//one step past the rank the pawns promote from
+		long positions=board.searchPiece(PieceCode.PawnW+side),targets;
+		int index;
+		generatePawnMoves(moves,positions,team,enemies,~occupied,enemies | lastRank);//captures, and pushes that promote
+		generateEnPassant(moves,positions,team,board.getEnPassant());
+		for(int code=PieceCode.RookW+side; code<PieceCode.PIECE_TYPES; code+=2){
+			positions=board.searchPiece(code);
+			while(positions!=0){
+				index=Long.numberOfTrailingZeros(positions);
+				positions&=positions-1;
+				targets=enemies & switch(code-side){
+					case PieceCode.RookW -> MagicBitboard.rookAttacks(index,occupied);
+					case PieceCode.KnightW -> Knight.attacks(index);
+					case PieceCode.BishopW -> MagicBitboard.bishopAttacks(index,occupied);
+					case PieceCode.QueenW -> MagicBitboard.queenAttacks(index,occupied);
+					default -> King.attacks(index);
+				};
+				PieceCode.pieceObj(code).addMoves(moves,targets,enemies,~occupied,index);
 			}
 		}
 	}
@@ -64,7 +176,7 @@ public class MoveGenerator{
 		int index;
 		long mask=0,positions;
 		long enemies=board.alliedPieceMask(!team),
-				blanks=~(enemies | board.alliedPieceMask(team));
+				blanks=~board.getOccupied();
 		for(int i=(team==WHITE)? 0 : 1; i<PieceCode.PIECE_TYPES; i+=2){
 			positions=board.searchPiece(i);//for each piece code
 			index=Coord.maskToIndex(positions);
@@ -75,4 +187,211 @@ public class MoveGenerator{
 		}
 		return mask;
 	}
+
+	/**
+	 * Finds every piece on a team that attacks a square
+	 * @param board    Current board state
+	 * @param index    The square being attacked
+	 * @param occupied Mask of the squares that block sliding pieces, pass a modified mask to see through pieces
+	 * @param team     The attacking team, WHITE or BLACK
+	 * @return Mask of the attacking pieces
+	 */
+	public static long attackersTo(Board board,final int index,final long occupied,boolean team){
+		final int side=(team==WHITE)? PieceCode.WHITE_OFFSET : PieceCode.BLACK_OFFSET;
+		final long queens=board.searchPiece(PieceCode.QueenW+side);
+		return (Pawn.attacks(1L << index,!team) & board.searchPiece(PieceCode.PawnW+side))//look backwards from the square with the other team's pawn
+				| (Knight.attacks(index) & board.searchPiece(PieceCode.KnightW+side))
+				| (King.attacks(index) & board.searchPiece(PieceCode.KingW+side))
+				| (MagicBitboard.bishopAttacks(index,occupied) & (board.searchPiece(PieceCode.BishopW+side) | queens))
+				| (MagicBitboard.rookAttacks(index,occupied) & (board.searchPiece(PieceCode.RookW+side) | queens));
+	}
+
+	/**
+	 * Checks if any piece on a team attacks a square
+	 * @param board Current board state
+	 * @param index The square to check
+	 * @param team  The attacking team, WHITE or BLACK
+	 * @return True if the square is attacked, False otherwise
+	 */
+	public static boolean isSquareAttacked(Board board,final int index,boolean team){
+		return 0!=attackersTo(board,index,board.getOccupied(),team);
+	}
+
+	/**
+	 * Static exchange evaluation: plays out every capture on the move's destination square, each side always recapturing with its least valuable piece
+	 * and free to stop when recapturing would lose more. Pieces lined up behind an attacker (x-rays) join in once the pieces in front of them are gone.
+	 * Pins and checks are ignored, except that a King never captures onto a square the other side still attacks
+	 * @param board The board before the move
+	 * @param move  A capture or promotion
+	 * @return Material won by the moving side at the end of the exchange, negative if the move loses material
+	 * @see #staticExchange(Board,int,int[])
+	 */
+	public static int staticExchange(Board board,int move){
+		return staticExchange(board,move,new int[EXCHANGE_LENGTH]);
+	}
+
+	/**
+	 * Static exchange evaluation without allocating, for the search where it runs at nearly every node
+	 * @param board The board before the move
+	 * @param move  A capture or promotion
+	 * @param gain  Scratch space for the material after each capture, at least EXCHANGE_LENGTH long
+	 * @return Material won by the moving side at the end of the exchange, negative if the move loses material
+	 */
+	public static int staticExchange(Board board,int move,int[] gain){
+		final int start=Move.getStartIndex(move),end=Move.getEndIndex(move),mover=board.getSquare(start);
+		final long diagonals=board.searchPiece(PieceCode.BishopW) | board.searchPiece(PieceCode.BishopB) | board.searchPiece(PieceCode.QueenW) | board.searchPiece(PieceCode.QueenB),
+				straights=board.searchPiece(PieceCode.RookW) | board.searchPiece(PieceCode.RookB) | board.searchPiece(PieceCode.QueenW) | board.searchPiece(PieceCode.QueenB);
+		long occupied=board.getOccupied(),from=1L << start,attackers;
+		boolean team=PieceCode.decodeTeam(mover);
+		int depth=0,onSquare=PieceCode.materialValue(mover);//the piece that will be standing on the square
+		if(Move.getSpecialCode(move)==Move.EnPassantCapture){
+			gain[0]=PieceCode.materialValue(PieceCode.PawnW);
+			occupied&=~board.getEnPassant();//the captured pawn is not on the destination square
+		}else{
+			gain[0]=PieceCode.materialValue(board.getSquare(end));//blank is worth 0
+		}
+		if(Move.isPawnPromotion(move)){
+			onSquare=PieceCode.materialValue(Move.getPieceCode(move));
+			gain[0]+=onSquare-PieceCode.materialValue(PieceCode.PawnW);
+		}
+		attackers=attackersTo(board,end,occupied,WHITE) | attackersTo(board,end,occupied,BLACK);
+		do{
+			++depth;
+			gain[depth]=onSquare-gain[depth-1];//what this side has if the other side takes back
+			if(Math.max(-gain[depth-1],gain[depth])<0) break;//neither taking back nor stopping changes the result
+			occupied^=from;
+			attackers|=(MagicBitboard.bishopAttacks(end,occupied) & diagonals) | (MagicBitboard.rookAttacks(end,occupied) & straights);//pieces behind the one that moved can now see the square
+			attackers&=occupied;
+			team=!team;
+			from=0;
+			final long mine=attackers & board.alliedPieceMask(team);
+			for(int code: EXCHANGE_ORDER){
+				final long pieces=mine & board.searchPiece(code+((team==WHITE)? PieceCode.WHITE_OFFSET : PieceCode.BLACK_OFFSET));
+				if(pieces!=0){
+					from=pieces & -pieces;
+					onSquare=PieceCode.materialValue(code);
+					break;
+				}
+			}
+			if(onSquare==PieceCode.materialValue(PieceCode.KingW) && 0!=(attackers & board.alliedPieceMask(!team))) from=0;//the King can't take a defended piece
+		}while(from!=0);
+		while(--depth>0){
+			gain[depth-1]=-Math.max(-gain[depth-1],gain[depth]);//each side picks the better of taking back or stopping
+		}
+		return gain[0];
+	}
+
+	/**
+	 * Generates only legal moves for a team, nothing has to be played out and tested afterwards.
+	 * Pieces pinned to the King may only move along the pin, when in check only moves landing on the checking piece or the squares between it and the King are allowed,
+	 * and in double check only the King may move. Boards without a King for this team have no checks or pins.
+	 * @param board Current board state
+	 * @param team  WHITE or BLACK
+	 * @param moves The list to fill, it is cleared first
+	 */
+	public static void generateLegalMoves(Board board,boolean team,MoveList moves){
+		moves.clear();
+		final int side=(team==WHITE)? PieceCode.WHITE_OFFSET : PieceCode.BLACK_OFFSET;
+		final long allies=board.alliedPieceMask(team),enemies=board.alliedPieceMask(!team),
+				occupied=board.getOccupied(),blanks=~occupied,king=board.searchPiece(PieceCode.KingW+side);
+		final int kingPos=(king==0)? Coord.ERROR_INDEX : Long.numberOfTrailingZeros(king);
+		long checkers=0,pinned=0,evasions=~0L,targets,positions;
+		int index,first;
+
+		if(king!=0){
+			checkers=attackersTo(board,kingPos,occupied,!team);
+			pinned=pinnedPieces(board,kingPos,team,allies,enemies);
+			targets=King.attacks(kingPos) & ~allies;
+			while(targets!=0){//the King is taken off the board so it cannot hide behind itself when stepping away from a slider
+				index=Long.numberOfTrailingZeros(targets);
+				if(0==attackersTo(board,index,occupied ^ king,!team))
+					moves.add(Move.encode((0!=(enemies & (1L << index)))? Move.capture : Move.normalMove,PieceCode.KingW+side,kingPos,index));
+				targets&=targets-1;
+			}
+			if(Long.bitCount(checkers)>1) return;//double check, only the King can move
+			if(checkers!=0) evasions=checkers | betweenMask[kingPos][Long.numberOfTrailingZeros(checkers)];//capture the checker or block it
+			else addCastles(board,team,kingPos,occupied,moves);//cannot castle out of check
+		}
+
+		positions=board.searchPiece(PieceCode.PawnW+side);
+		generatePawnMoves(moves,positions & ~pinned,team,enemies,blanks,evasions);//free pawns all go in one shot
+		positions&=pinned;
+		while(positions!=0){//pinned pawns one at a time, each has its own line
+			index=Long.numberOfTrailingZeros(positions);
+			generatePawnMoves(moves,positions & -positions,team,enemies,blanks,evasions & lineMask[kingPos][index]);
+			positions&=positions-1;
+		}
+		for(int code=PieceCode.RookW+side; code<PieceCode.KingW; code+=2){
+			positions=board.searchPiece(code);
+			while(positions!=0){
+				index=Long.numberOfTrailingZeros(positions);
+				positions&=positions-1;
+				targets=evasions;
+				if(0!=(pinned & (1L << index))) targets&=lineMask[kingPos][index];//pinned pieces stay on the line through the King
+				targets&=switch(code-side){
+					case PieceCode.RookW -> MagicBitboard.rookAttacks(index,occupied);
+					case PieceCode.KnightW -> Knight.attacks(index);
+					case PieceCode.BishopW -> MagicBitboard.bishopAttacks(index,occupied);
+					default -> MagicBitboard.queenAttacks(index,occupied);
+				};
+				PieceCode.pieceObj(code).addMoves(moves,targets,enemies,blanks,index);
+			}
+		}
+
+		if(board.getEnPassant()!=0){//EnPassant removes two pieces from a line at once, so play it out on the occupancy mask instead of trusting the pin mask
+			first=moves.size();
+			generateEnPassant(moves,board.searchPiece(PieceCode.PawnW+side),team,board.getEnPassant());
+			for(int i=moves.size()-1; i>=first && king!=0; --i){
+				int move=moves.get(i);
+				if(0!=(attackersTo(board,kingPos,(occupied ^ (1L << Move.getStartIndex(move)) ^ board.getEnPassant()) | (1L << Move.getEndIndex(move)),!team) & ~board.getEnPassant())){
+					moves.set(i,moves.get(moves.size()-1));//illegal, swap the last move in and drop the end
+					moves.removeLast();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Finds the allied pieces that are the only thing between the King and an enemy sliding piece
+	 * @param board   Current board state
+	 * @param kingPos Where the King is
+	 * @param team    The King's team
+	 * @param allies  Mask of the King's team
+	 * @param enemies Mask of the other team
+	 * @return Mask of the pinned pieces
+	 */
+	private static long pinnedPieces(Board board,final int kingPos,boolean team,final long allies,final long enemies){
+		final int enemy=(team==WHITE)? PieceCode.BLACK_OFFSET : PieceCode.WHITE_OFFSET;
+		final long queens=board.searchPiece(PieceCode.QueenW+enemy);
+		long pinned=0,between,snipers=(MagicBitboard.rookAttacks(kingPos,enemies) & (board.searchPiece(PieceCode.RookW+enemy) | queens))
+				| (MagicBitboard.bishopAttacks(kingPos,enemies) & (board.searchPiece(PieceCode.BishopW+enemy) | queens));//look through allies to find the sliders lined up on the King
+		while(snipers!=0){
+			between=betweenMask[kingPos][Long.numberOfTrailingZeros(snipers)] & (allies | enemies);
+			if(Long.bitCount(between)==1 && 0!=(between & allies)) pinned|=between;//exactly one piece in the way and it is ours
+			snipers&=snipers-1;
+		}
+		return pinned;
+	}
+
+	/**
+	 * Adds the legal castling moves, the King may not pass through or land on an attacked square
+	 * @param board    Current board state
+	 * @param team     WHITE or BLACK
+	 * @param kingPos  Where the King is
+	 * @param occupied Mask of all pieces
+	 * @param moves    The list to add castling moves onto
+	 */
+	private static void addCastles(Board board,boolean team,final int kingPos,final long occupied,MoveList moves){
+		final int y=(team==WHITE)? XYMIN : XYMAX;
+		if(kingPos!=Coord.XYToIndex(Board.KingX,y) || !board.hasNotMoved(kingPos)) return;
+		final long rooks=board.searchPiece((team==WHITE)? PieceCode.RookW : PieceCode.RookB);
+		int rookPos=Coord.XYToIndex(Board.QRookX,y);
+		if(board.hasNotMoved(rookPos) && 0!=(rooks & (1L << rookPos)) && 0==(occupied & betweenMask[kingPos][rookPos])
+				&& !isSquareAttacked(board,kingPos-1,!team) && !isSquareAttacked(board,kingPos-2,!team))
+			moves.add(Move.encodeCastle(Move.qSideCastle,team));
+		rookPos=Coord.XYToIndex(Board.KRookX,y);
+		if(board.hasNotMoved(rookPos) && 0!=(rooks & (1L << rookPos)) && 0==(occupied & betweenMask[kingPos][rookPos])
+				&& !isSquareAttacked(board,kingPos+1,!team) && !isSquareAttacked(board,kingPos+2,!team))
+			moves.add(Move.encodeCastle(Move.kSideCastle,team));
+	}
 }
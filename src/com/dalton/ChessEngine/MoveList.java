@@ -0,0 +1,124 @@
+package com.dalton.ChessEngine;
+
+import java.util.Arrays;
+
+/**
+ * A list of encoded move integers backed by a plain int array, replaces ArrayList&lt;Integer&gt; so moves never get boxed.<br/>
+ * Lists are meant to be allocated once (one per search depth) and then cleared and refilled, not re-created.
+ * @author Dalton Herrewynen
+ * @version 1
+ * @see Move
+ */
+public class MoveList{
+	/** Enough room for any real chess position, the most legal moves ever found in one position is 218 */
+	public static final int DEFAULT_CAPACITY=256;
+	/** The encoded moves, only the first <code>size</code> entries are valid */
+	private int[] moves;
+	/** How many moves are in the list */
+	private int size;
+
+	/** Creates an empty list with the default capacity */
+	public MoveList(){
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Creates an empty list with a given capacity
+	 * @param capacity How many moves to make room for up front
+	 */
+	public MoveList(int capacity){
+		moves=new int[Math.max(capacity,1)];
+		size=0;
+	}
+
+	/**
+	 * Creates a list holding a copy of another list's moves
+	 * @param list The list to copy
+	 */
+	public MoveList(MoveList list){
+		moves=Arrays.copyOf(list.moves,list.moves.length);
+		size=list.size;
+	}
+
+	/**
+	 * Adds a move to the end of the list
+	 * @param move The encoded move integer
+	 */
+	public void add(int move){
+		if(size==moves.length) moves=Arrays.copyOf(moves,moves.length*2);//only grows on made up boards with more pieces than a real game
+		moves[size++]=move;
+	}
+
+	/**
+	 * Adds every move from another list onto the end of this one
+	 * @param list The moves to add
+	 */
+	public void addAll(MoveList list){
+		for(int i=0; i<list.size; ++i){
+			add(list.moves[i]);
+		}
+	}
+
+	/**
+	 * Gets a move, does not check bounds beyond what the array does
+	 * @param index Which move
+	 * @return The encoded move integer
+	 */
+	public int get(int index){
+		return moves[index];
+	}
+
+	/**
+	 * Overwrites a move in the list
+	 * @param index Which move
+	 * @param move  The new encoded move integer
+	 */
+	public void set(int index,int move){
+		moves[index]=move;
+	}
+
+	/**
+	 * Swaps two moves, used for re-ordering moves in place
+	 * @param i First move index
+	 * @param j Second move index
+	 */
+	public void swap(int i,int j){
+		int temp=moves[i];
+		moves[i]=moves[j];
+		moves[j]=temp;
+	}
+
+	/**
+	 * Gets how many moves are in the list
+	 * @return The number of moves
+	 */
+	public int size(){
+		return size;
+	}
+
+	/**
+	 * Checks if there are any moves in the list
+	 * @return True if there are no moves, False otherwise
+	 */
+	public boolean isEmpty(){
+		return size==0;
+	}
+
+	/** Drops the last move in the list, does nothing if it is empty */
+	public void removeLast(){
+		if(size>0) --size;
+	}
+
+	/** Empties the list without giving up the memory */
+	public void clear(){
+		size=0;
+	}
+
+	/**
+	 * Copies the moves out into a new array that is exactly the right size
+	 * @return int array of encoded moves
+	 */
+	public int[] toArray(){
+		return Arrays.copyOf(moves,size);
+	}
+}
@@ -0,0 +1,122 @@
+package com.dalton.ChessEngine;
+
+/**
+ * Hands out the moves of a MoveList best first, so alpha-beta cutoffs come as early as possible.<br/>
+ * Every move gets a score in a parallel int array: the transposition table move first, then captures by MVV-LVA
+ * (most valuable victim, least valuable attacker), then the killer moves, then quiet moves by their history score,
+ * and last the captures that lose material by static exchange evaluation.
+ * The list is not sorted up front, each call to next() just finds the best of the moves left (partial selection sort),
+ * so a cutoff on the first move or two never pays for sorting the rest.
+ * @author Dalton Herrewynen
+ * @version 1.1
+ * @see MoveList
+ */
+public class MovePicker{
+	/** Score bands, each kind of move always sorts above the kinds below it */
+	private static final int TT_SCORE=1 << 30, CAPTURE_SCORE=1 << 28, KILLER_SCORE=1 << 27, LOSING_SCORE=-(1 << 28);
+	/** Ordering score of each move, lined up with the move list */
+	private int[] scores=new int[MoveList.DEFAULT_CAPACITY];
+	/** The moves being picked from, they get swapped around as they are picked */
+	private MoveList moves;
+	/** How many moves have been handed out */
+	private int picked;
+	/** Scratch space for static exchange evaluation, kept so the search does not allocate at every node */
+	private final int[] gain=new int[MoveGenerator.EXCHANGE_LENGTH];
+
+	/**
+	 * Scores a list of moves ready for picking
+	 * @param moves   The moves to pick from, they are re-ordered in place
+	 * @param board   The board the moves are for, to look up what each capture takes
+	 * @param ttMove  The best move from the transposition table, blank if none
+	 * @param killer1 The newest killer move for this ply, blank if none
+	 * @param killer2 The older killer move for this ply, blank if none
+	 * @param history History scores for the side to move, Arranged[start][end]
+	 */
+	public void init(MoveList moves,Board board,int ttMove,int killer1,int killer2,int[][] history){
+		this.moves=moves;
+		picked=0;
+		if(scores.length<moves.size()) scores=new int[moves.size()];//only on made up boards with more pieces than a real game
+		for(int i=0; i<moves.size(); ++i){
+			int move=moves.get(i);
+			if(move==ttMove) scores[i]=TT_SCORE;
+			else if(isTactical(move)) scores[i]=(losesMaterial(board,move)? LOSING_SCORE : CAPTURE_SCORE)+mvvLva(board,move);
+			else if(move==killer1) scores[i]=KILLER_SCORE+1;
+			else if(move==killer2) scores[i]=KILLER_SCORE;
+			else scores[i]=history[Move.getStartIndex(move)][Move.getEndIndex(move)];
+		}
+	}
+
+	/**
+	 * Checks if there are moves left
+	 * @return True if next() will give a move
+	 */
+	public boolean hasNext(){
+		return picked<moves.size();
+	}
+
+	/**
+	 * Gets the best move not yet handed out
+	 * @return Encoded move integer
+	 */
+	public int next(){
+		int best=picked;
+		for(int i=picked+1; i<moves.size(); ++i){
+			if(scores[i]>scores[best]) best=i;
+		}
+		int score=scores[best];//swap the best move into the next slot, in both arrays
+		scores[best]=scores[picked];
+		scores[picked]=score;
+		moves.swap(best,picked);
+		return moves.get(picked++);
+	}
+
+	/**
+	 * Checks if the move last handed out by next() is a capture that loses material
+	 * @return True if it was sorted with the losing captures
+	 */
+	public boolean losesMaterial(){
+		return picked>0 && scores[picked-1]<0;//only losing captures score below 0, history scores never do
+	}
+
+	/**
+	 * Checks if a capture or promotion loses material, the full exchange is only worked out if a bigger piece takes a smaller one
+	 * @param board The board before the move
+	 * @param move  Encoded move integer
+	 * @return True if the exchange loses material
+	 */
+	private boolean losesMaterial(Board board,int move){
+		final int victim=(Move.getSpecialCode(move)==Move.EnPassantCapture)? PieceCode.PawnW : board.getSquare(Move.getEndIndex(move));
+		if(!Move.isPawnPromotion(move) && PieceCode.materialValue(victim)>=PieceCode.materialValue(board.getSquare(Move.getStartIndex(move)))) return false;//even if it's taken back, it's at least an even trade
+		return MoveGenerator.staticExchange(board,move,gain)<0;
+	}
+
+	/**
+	 * Checks if a move changes the material on the board, captures and promotions
+	 * @param move Encoded move integer
+	 * @return True if it captures or promotes
+	 */
+	public static boolean isTactical(int move){
+		return Move.isCapture(move) || Move.isPawnPromotion(move);
+	}
+
+	/**
+	 * Scores a capture or promotion, taking a big piece with a small one comes first
+	 * @param board The board before the move
+	 * @param move  Encoded move integer
+	 * @return Higher for better captures, always positive
+	 */
+	static int mvvLva(Board board,int move){
+		int code=Move.getPieceCode(move),victim,attacker=code;
+		if(Move.getSpecialCode(move)==Move.EnPassantCapture){
+			victim=code ^ 1;//the other team's pawn
+		}else{
+			victim=board.getSquare(Move.getEndIndex(move));
+		}
+		int score=PieceCode.materialValue(victim)*16;
+		if(Move.isPawnPromotion(move)){//the new piece counts as winning material, but it is still a pawn doing the capturing
+			attacker=PieceCode.PawnW;
+			score+=(PieceCode.materialValue(code)-PieceCode.materialValue(PieceCode.PawnW))*16;
+		}
+		return score+(PieceCode.materialValue(PieceCode.KingW)-PieceCode.materialValue(attacker))/100;//least valuable attacker breaks ties
+	}
+}
@@ -1,7 +1,5 @@
 package com.dalton.ChessEngine;
 
-import java.util.ArrayList;
-
 import static com.dalton.ChessEngine.Types.*;
 
 /**
@@ -26,7 +24,7 @@ public class PGNConverter{
 	 * @return The move which the algebraic notation encoded
 	 */
 	public static int getMove(Board board,String PGN,boolean player){
-		ArrayList<Integer> moves;
+		MoveList moves;
 		boolean capture=false;//is this move a capture
 		char pieceInitial='P',promotedInitial=' ';//default to a pawn and no promotion
 		int dest=Coord.ERROR_INDEX;//default state is a failure unless we find a valid PGN token
@@ -88,12 +86,12 @@ public class PGNConverter{
 
 	/**
 	 * Search for moves based only on the destination
-	 * @param moves     ArrayList of move integers
+	 * @param moves     List of move integers
 	 * @param dest      The destination square
 	 * @param isCapture Should we be looking for a capture move?
 	 * @return An encoded move integer, either the matching move or a blank move if nothing found
 	 */
-	private static int searchMovesNoDiff(ArrayList<Integer> moves,int dest,boolean isCapture){
+	private static int searchMovesNoDiff(MoveList moves,int dest,boolean isCapture){
 		//search for the moves
 		for(int i=0; i<moves.size(); ++i){
 			if(Move.getEndIndex(moves.get(i))==dest && Move.isCapture(moves.get(i))==isCapture)
@@ -104,13 +102,13 @@ public class PGNConverter{
 
 	/**
 	 * Search for moves based on destination and X coordinate
-	 * @param moves     ArrayList of move integers
+	 * @param moves     List of move integers
 	 * @param dest      The destination square
 	 * @param startX    The starting X coordinate
 	 * @param isCapture Should we be looking for a capture move?
 	 * @return An encoded move integer, either the matching move or a blank move if nothing found
 	 */
-	private static int searchMovesDiffX(ArrayList<Integer> moves,int dest,int startX,boolean isCapture){
+	private static int searchMovesDiffX(MoveList moves,int dest,int startX,boolean isCapture){
 		//search for the moves
 		for(int i=0; i<moves.size(); ++i){
 			if(Move.getEndIndex(moves.get(i))==dest && //match destination
@@ -123,13 +121,13 @@ public class PGNConverter{
 
 	/**
 	 * Search for moves based on destination and Y coordinate
-	 * @param moves     ArrayList of move integers
+	 * @param moves     List of move integers
 	 * @param dest      The destination square
 	 * @param startY    The starting Y coordinate
 	 * @param isCapture Should we be looking for a capture move?
 	 * @return An encoded move integer, either the matching move or a blank move if nothing found
 	 */
-	private static int searchMovesDiffY(ArrayList<Integer> moves,int dest,int startY,boolean isCapture){
+	private static int searchMovesDiffY(MoveList moves,int dest,int startY,boolean isCapture){
 		//search for the moves
 		for(int i=0; i<moves.size(); ++i){
 			if(Move.getEndIndex(moves.get(i))==dest && //match destination
@@ -151,7 +149,7 @@ public class PGNConverter{
 		String pgn=Coord.indexToPGN(Move.getEndIndex(move));//set the destination square
 		if(board.getSquare(Move.getEndIndex(move))!=PieceCode.Blank || Move.isCapture(move)) pgn="x"+pgn;//if a capture, then prepend an x before the coordinate
 		int code=Move.getPieceCode(move);
-		ArrayList<Integer> candidates=Engine.getLegalMoves(board,code);//find all the moves for this piece type
+		MoveList candidates=Engine.getLegalMoves(board,code);//find all the moves for this piece type
 		for(int i=0; i<candidates.size(); ++i){//search for ambiguous moves, then differentiate
 			if(Move.getEndIndex(candidates.get(i))==Move.getEndIndex(move) &&//if the move matches the destination
 					Move.getStartIndex(candidates.get(i))!=Move.getStartIndex(move)){//and does not have same start index
@@ -281,7 +279,8 @@ public class PGNConverter{
 		}
 		unMovedMask|=Pawn.BLACK_Promotion_mask & board.searchPiece(PieceCode.PawnW);//Mark any pawns that are in the starting position as unmoved
 		unMovedMask|=Pawn.WHITE_Promotion_mask & board.searchPiece(PieceCode.PawnB);//Use the other team's promotion mask because it's this team's starting position
-		board.setHasNotMoved(unMovedMask);//apply the mask to the pieces that have not moved
+		board.setHasNotMoved(unMovedMask & board.getOccupied());//apply the mask to the pieces that have not moved, only where there are pieces
+		board.setTurn(team);
 
 		if(!FEN_Parts[3].equals("-")){//check if there is EnPassant vulnerability
 			int EnPassant=Coord.PGNToIndex(FEN_Parts[3]);//get the integer index
@@ -1,7 +1,5 @@
 package com.dalton.ChessEngine;
 
-import java.util.ArrayList;
-
 import static com.dalton.ChessEngine.Types.*;
 
 /**
@@ -22,6 +20,10 @@ public class Pawn extends Piece{
 	public static final long
 			WHITE_EnPassant_mask=0b0000000000000000000000001111111100000000000000000000000000000000L,
 			BLACK_EnPassant_mask=0b0000000000000000000000000000000011111111000000000000000000000000L;
+	/** Bit masks for the left and right files, stops whole board shifts from wrapping around the edges */
+	public static final long
+			LEFT_FILE_mask=0b0000000100000001000000010000000100000001000000010000000100000001L,
+			RIGHT_FILE_mask=0b1000000010000000100000001000000010000000100000001000000010000000L;
 	/** The scoring Look Up Table */
 	private final int[] scoreLUT={
 			0,10,20,50,50,20,10,0,//score table is subject to change and tweaks
@@ -87,15 +89,16 @@ public class Pawn extends Piece{
 	 * @param position The position index to check from
 	 */
 	@Override
-	public void getMoves(ArrayList<Integer> moves,final long enemies,final long blanks,final int position){
-		ArrayList<Integer> tempMoves=new ArrayList<>();
+	public void getMoves(MoveList moves,final long enemies,final long blanks,final int position){
 		long diagLeftMask=(1L << Coord.shiftIndex(position,-1,deltaY)),//diagonally to the left, purely for readability, generates the bitmask for the square
 				diagRightMask=(1L << Coord.shiftIndex(position,1,deltaY));//diagonally to the right,todo make these generated only if not on edges... saves cycles later
+		boolean promote=team==WHITE && 0!=(WHITE_Promotion_mask & (1L << position)) ||//Mask WHITE for promotion eligibility
+				team==BLACK && 0!=(BLACK_Promotion_mask & (1L << position));//Mask BLACK for promotion eligibility, decided once so each move can be emitted straight away
 		//normal moves
 		if(0!=(blanks & (1L << Coord.shiftIndex(position,0,deltaY)))){//single move if not blocked
-			tempMoves.add(Move.encodeNormal(pieceCode,position,Coord.shiftIndex(position,0,deltaY)));//single move in direction of travel for this pawn
+			addMove(moves,Move.normalMove,position,Coord.shiftIndex(position,0,deltaY),promote);//single move in direction of travel for this pawn
 			if(0!=(blanks & (1L << Coord.shiftIndex(position,0,2*deltaY))) && 0!=(startingRank & (1L << position))){//if not blocked and on starting rank
-				tempMoves.add(Move.encode(Move.pawnDoubleMove,pieceCode,position,Coord.shiftIndex(position,0,2*deltaY)));//double move on first move
+				moves.add(Move.encode(Move.pawnDoubleMove,pieceCode,position,Coord.shiftIndex(position,0,2*deltaY)));//double move on first move
 			}
 		}
 
@@ -104,16 +107,26 @@ public class Pawn extends Piece{
 
 		//captures (with Yoda code)
 		if(0!=(enemies & diagLeftMask) && !edgeLeft)
-			tempMoves.add(Move.encode(Move.capture,pieceCode,position,Coord.shiftIndex(position,-1,deltaY)));//capture if enemy piece diagonally to the left
+			addMove(moves,Move.capture,position,Coord.shiftIndex(position,-1,deltaY),promote);//capture if enemy piece diagonally to the left
 		if(0!=(enemies & diagRightMask) && !edgeRight)
-			tempMoves.add(Move.encode(Move.capture,pieceCode,position,Coord.shiftIndex(position,1,deltaY)));//capture if enemy piece diagonally to the right
+			addMove(moves,Move.capture,position,Coord.shiftIndex(position,1,deltaY),promote);//capture if enemy piece diagonally to the right
+	}
 
-		//promotion
-		if(team==WHITE && 0!=(WHITE_Promotion_mask & (1L << position)) ||//Mask WHITE for promotion eligibility
-				team==BLACK && 0!=(BLACK_Promotion_mask & (1L << position))){//Mask BLACK for promotion eligibility, OR saves one jump more often than putting two ifs and selecting different promotion methods
-			moves.addAll(generatePromotions(tempMoves));//if we can promote, force promotion
-		}else{
-			moves.addAll(tempMoves);//if no promotion, then return the normal moves list
+	/**
+	 * Adds a single move or capture, or every promotion of it if the pawn is about to promote
+	 * @param moves       Reference to the Move list
+	 * @param specialCode Normal move or capture code
+	 * @param start       Where the pawn starts
+	 * @param end         Where the pawn ends
+	 * @param promote     True if the move reaches the last rank
+	 */
+	private void addMove(MoveList moves,final int specialCode,final int start,final int end,final boolean promote){
+		if(!promote){
+			moves.add(Move.encode(specialCode,pieceCode,start,end));
+			return;
+		}
+		for(int j=pieceCode+2; j<PieceCode.KingW; j+=2){//this is a weird one, I chose to make BLACK and WHITE piece codes odd and even respectively, this works for the same reason a bit mask works, the 1's bit acts like a team toggle and by offsetting we can select the team for (almost) free. We also can't promote to kings
+			moves.add(Move.encode(specialCode | Move.pawnPromote,j,start,end));//copy everything but iterate all eligible new piece codes and toggle the promotion bit
 		}
 	}
 
@@ -135,25 +148,6 @@ public class Pawn extends Piece{
 		return Move.blank();
 	}
 
-	/**
-	 * Converts all moves into promotions for each piece type on this Pawn's team
-	 * @param moves The list of integer moves to convert
-	 * @return The same moves but each one is now every possible promotion
-	 */
-	private ArrayList<Integer> generatePromotions(ArrayList<Integer> moves){
-		ArrayList<Integer> promotions=new ArrayList<>();
-		int start, end, specialCode;
-		for(int i=0; i<moves.size(); ++i){//search all moves, exactly copy them with each eligible piece code for promotion
-			start=Move.getStartIndex(moves.get(i));//TODO: replace this with more masking madness
-			end=Move.getEndIndex(moves.get(i));
-			specialCode=Move.getSpecialCode(moves.get(i));
-			for(int j=pieceCode+2; j<PieceCode.KingW; j+=2){//this is a weird one, I chose to make BLACK and WHITE piece codes odd and even respectively, this works for the same reason a bit mask works, the 1's bit acts like a team toggle and by offsetting we can select the team for (almost) free. We also can't promote to kings
-				promotions.add(Move.encode(specialCode | Move.pawnPromote,j,start,end));//copy everything but iterate all eligible new piece codes and toggle the promotion bit
-			}
-		}
-		return promotions;
-	}
-
 	/**
 	 * Get the mask of squares this Pawn can attack
 	 * @param enemies Mask of enemies to capture
@@ -176,4 +170,15 @@ public class Pawn extends Piece{
 		}
 		return mask & (enemies | blanks);
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Gets every square attacked by a whole set of pawns at once
+	 * @param pawns Mask of the pawns
+	 * @param team  Which way the pawns face, WHITE or BLACK
+	 * @return a 64-bit integer bit mask
+	 */
+	public static long attacks(final long pawns,final boolean team){
+		if(team==WHITE) return ((pawns & ~LEFT_FILE_mask)<<7) | ((pawns & ~RIGHT_FILE_mask)<<9);//up and to either side
+		return ((pawns & ~LEFT_FILE_mask)>>>9) | ((pawns & ~RIGHT_FILE_mask)>>>7);//exactly backwards from the WHITE pawns
+	}
+}
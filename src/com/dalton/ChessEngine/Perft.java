@@ -0,0 +1,208 @@
+package com.dalton.ChessEngine;
+
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Performance test (perft), counts every leaf of the legal move tree to a fixed depth.<br/>
+ * The counts are well known for standard positions so they catch move generator bugs, and the timing measures raw move generation speed.
+ * Each move at the root is counted as its own task so the subtrees can be split between threads.
+ * An optional PerftTable lets the threads share subtree counts, transpositions are then only counted once.
+ * @author Dalton Herrewynen
+ * @version 2
+ */
+public class Perft{
+	/** The legal moves at the root */
+	private final MoveList rootMoves;
+	/** Leaf nodes under each root move, lined up with rootMoves */
+	private final long[] counts;
+	/** How deep the tree was counted */
+	private final int depth;
+	/** Total leaf nodes */
+	private final long nodes;
+	/** How long the count took in nanoseconds */
+	private final long nanos;
+
+	/**
+	 * Stores the result of a perft run
+	 * @param rootMoves The legal moves at the root
+	 * @param counts    Leaf nodes under each root move
+	 * @param depth     How deep the tree was counted
+	 * @param nodes     Total leaf nodes
+	 * @param nanos     How long the count took in nanoseconds
+	 */
+	private Perft(MoveList rootMoves,long[] counts,int depth,long nodes,long nanos){
+		this.rootMoves=rootMoves;
+		this.counts=counts;
+		this.depth=depth;
+		this.nodes=nodes;
+		this.nanos=nanos;
+	}
+
+	/**
+	 * Counts the leaf nodes below a position, splitting the root moves between the threads of a pool
+	 * @param board The position to count from, it is not changed
+	 * @param team  Who moves first, WHITE or BLACK
+	 * @param depth How many plies to count
+	 * @param pool  The thread pool to run the subtrees on
+	 * @param table Table of subtree counts shared by all threads, null to count everything
+	 * @return The perft result
+	 */
+	public static Perft run(Board board,boolean team,int depth,ForkJoinPool pool,PerftTable table){
+		long start=System.nanoTime(),nodes=0;
+		MoveList rootMoves=new MoveList();
+		if(depth<=0) return new Perft(rootMoves,new long[0],depth,1,System.nanoTime()-start);//the root is the only leaf
+		Engine.getLegalMoves(board,team,rootMoves);
+		long[] counts=new long[rootMoves.size()];
+		ArrayList<SubtreeTask> tasks=new ArrayList<>(rootMoves.size());
+		for(int i=0; i<rootMoves.size(); ++i){//hand every root move to the pool first, then collect
+			Board moved=new Board(board);
+			moved.makeMove(rootMoves.get(i));
+			SubtreeTask task=new SubtreeTask(moved,!team,depth-1,table);
+			pool.execute(task);
+			tasks.add(task);
+		}
+		for(int i=0; i<tasks.size(); ++i){
+			counts[i]=tasks.get(i).join();
+			nodes+=counts[i];
+		}
+		return new Perft(rootMoves,counts,depth,nodes,System.nanoTime()-start);
+	}
+
+	/**
+	 * Counts the leaf nodes below a position on a single thread
+	 * @param board The position to count from, moves are made and unmade on it so it is left as it was
+	 * @param team  Who moves, WHITE or BLACK
+	 * @param depth How many plies to count
+	 * @param undo  Pre-Allocated undo stack, Arranged[depth]
+	 * @param lists Pre-Allocated move lists, Arranged[depth]
+	 * @param table Table of subtree counts, null to count everything
+	 * @return Number of leaf nodes
+	 */
+	static long count(Board board,boolean team,int depth,UndoInfo[] undo,MoveList[] lists,PerftTable table){
+		if(depth<=0) return 1;
+		long nodes=0,hash=0;
+		if(table!=null && depth>1){//the last ply is bulk counted, cheaper than a lookup
+			hash=board.getHash();//kept up to date by makeMove, no need to hash from scratch
+			nodes=table.get(hash,depth);
+			if(nodes>=0) return nodes;//already counted this subtree, possibly on another thread
+			nodes=0;
+		}
+		MoveList moves=lists[depth];
+		Engine.getLegalMoves(board,team,moves);
+		if(depth==1) return moves.size();//every legal move is a leaf, no need to make them
+		for(int i=0; i<moves.size(); ++i){
+			board.makeMove(moves.get(i),undo[depth]);
+			nodes+=count(board,!team,depth-1,undo,lists,table);
+			board.unmakeMove(moves.get(i),undo[depth]);
+		}
+		if(table!=null) table.put(hash,depth,nodes);
+		return nodes;
+	}
+
+	/** One root move's subtree, each task gets its own board, undo stack and move lists so nothing is shared between threads */
+	private static class SubtreeTask extends RecursiveTask<Long>{
+		private static final long serialVersionUID=1L;
+		private final Board board;
+		private final boolean team;
+		private final int depth;
+		private final PerftTable table;
+
+		/**
+		 * Sets up the subtree to count
+		 * @param board The position after the root move
+		 * @param team  Who moves next
+		 * @param depth How many plies are left
+		 * @param table The shared table of subtree counts, may be null
+		 */
+		SubtreeTask(Board board,boolean team,int depth,PerftTable table){
+			this.board=board;
+			this.team=team;
+			this.depth=depth;
+			this.table=table;
+		}
+
+		/**
+		 * Counts the subtree
+		 * @return Number of leaf nodes
+		 */
+		@Override
+		protected Long compute(){
+			MoveList[] lists=new MoveList[depth+1];
+			for(int i=0; i<=depth; ++i){
+				lists[i]=new MoveList();
+			}
+			return count(board,team,depth,UndoInfo.stack(depth+1),lists,table);
+		}
+	}
+
+	/**
+	 * Gets the total leaf nodes
+	 * @return Number of nodes
+	 */
+	public long getNodes(){
+		return nodes;
+	}
+
+	/**
+	 * Gets how deep the tree was counted
+	 * @return Depth in plies
+	 */
+	public int getDepth(){
+		return depth;
+	}
+
+	/**
+	 * Gets how long the count took
+	 * @return Time in milliseconds
+	 */
+	public long getMillis(){
+		return nanos/1_000_000;
+	}
+
+	/**
+	 * Gets the speed of the count
+	 * @return Leaf nodes per second
+	 */
+	public long getNodesPerSecond(){
+		return (nanos==0)? 0 : (long) (nodes*1_000_000_000.0/nanos);
+	}
+
+	/**
+	 * Gets the legal moves at the root
+	 * @return List of encoded moves, lined up with getCounts()
+	 */
+	public MoveList getRootMoves(){
+		return rootMoves;
+	}
+
+	/**
+	 * Gets the leaf nodes below each root move
+	 * @return Array of counts, lined up with getRootMoves()
+	 */
+	public long[] getCounts(){
+		return counts;
+	}
+
+	/**
+	 * Lists every root move with its leaf nodes, one per line
+	 * @return String like "e2e4: 20"
+	 */
+	public String divide(){
+		StringBuilder res=new StringBuilder();
+		for(int i=0; i<rootMoves.size(); ++i){
+			res.append(Move.toLongAlgebraic(rootMoves.get(i))).append(": ").append(counts[i]).append('\n');
+		}
+		return res.toString();
+	}
+
+	/**
+	 * Summarizes the run
+	 * @return String with the depth, nodes, time and speed
+	 */
+	@Override
+	public String toString(){
+		return "Depth: "+depth+"\nNodes: "+nodes+"\nTime: "+getMillis()+" ms\nNodes/second: "+getNodesPerSecond();
+	}
+}
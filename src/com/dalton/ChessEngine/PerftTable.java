@@ -0,0 +1,70 @@
+package com.dalton.ChessEngine;
+
+import java.util.Arrays;
+
+/**
+ * Fixed size hash table of perft subtree counts, keyed by the position hash and the depth left.<br/>
+ * Shared by every perft thread without locks: each entry is two longs, the count and the key XOR'd with the count.
+ * If two threads write the same entry at once the halves will not match up, so a torn entry just reads as a miss.
+ * @author Dalton Herrewynen
+ * @version 1
+ */
+public class PerftTable{
+	/** Two longs per entry: {key XOR count, count} */
+	private final long[] entries;
+	/** Number of entries minus one, entry count is a power of 2 so this masks a hash into an index */
+	private final int indexMask;
+
+	/**
+	 * Makes an empty table
+	 * @param megabytes How much memory to use, rounded down to a power of 2 number of entries
+	 */
+	public PerftTable(int megabytes){
+		long bytes=Math.max(1,megabytes)*1024L*1024L;
+		int count=Integer.highestOneBit((int) Math.min(bytes/(2*Long.BYTES),1 << 29));//16 bytes per entry, capped so the array length fits in an int
+		entries=new long[2*count];
+		indexMask=count-1;
+	}
+
+	/**
+	 * Mixes the depth into the hash so the same position at different depths gets a different key
+	 * @param hash  The position hash
+	 * @param depth The depth left
+	 * @return Key for the table
+	 */
+	private static long key(long hash,int depth){
+		return hash ^ (depth*0x9E3779B97F4A7C15L);//golden ratio constant spreads the depths over all bits
+	}
+
+	/**
+	 * Looks up a subtree count
+	 * @param hash  The position hash, including the side to move
+	 * @param depth The depth left
+	 * @return The count, or -1 if it is not in the table
+	 */
+	public long get(long hash,int depth){
+		final long key=key(hash,depth);
+		final int index=2*(int) (key & indexMask);
+		final long check=entries[index],count=entries[index+1];
+		if((check ^ count)!=key || count==0) return -1;//empty, a different position, or torn by another thread
+		return count;
+	}
+
+	/**
+	 * Stores a subtree count, always replaces what was there
+	 * @param hash  The position hash, including the side to move
+	 * @param depth The depth left
+	 * @param count The number of leaf nodes
+	 */
+	public void put(long hash,int depth,long count){
+		final long key=key(hash,depth);
+		final int index=2*(int) (key & indexMask);
+		entries[index]=key ^ count;
+		entries[index+1]=count;
+	}
+
+	/** Empties the table */
+	public void clear(){
+		Arrays.fill(entries,0);
+	}
+}
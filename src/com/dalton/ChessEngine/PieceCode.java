@@ -6,7 +6,7 @@ import static com.dalton.ChessEngine.Types.*;
 /**
  * Handles all the operations related to Piece integer codes and their conversions
  * @author Dalton Herrewynen
- * @version 1
+ * @version 1.1
  * @see Board
  * @see Piece
  */
@@ -21,6 +21,8 @@ public abstract class PieceCode{
 	private static final Piece[] PIECE_OBJECT={new Pawn(WHITE),new Pawn(BLACK),new Rook(WHITE),new Rook(BLACK),
 			new Knight(WHITE),new Knight(BLACK),new Bishop(WHITE),new Bishop(BLACK),new Queen(WHITE),new Queen(BLACK),
 			new King(WHITE),new King(BLACK)};
+	/** Plain material value of each piece code, the same starting values each Piece's pieceValue uses, the King is priced so it is never traded, Blank is worth nothing */
+	private static final int[] MATERIAL={100,100,500,500,300,300,300,300,2000,2000,10000,10000,0};
 
 	/**
 	 * Gets team from the piece code
@@ -73,6 +75,15 @@ public abstract class PieceCode{
 		return PIECE_OBJECT[code];
 	}
 
+	/**
+	 * Gets the plain material value of a piece, without any of the positional scoring, for weighing up captures
+	 * @param code The integer Piece Code
+	 * @return Value in the same units as Engine.score, 0 for Blank
+	 */
+	public static int materialValue(int code){
+		return MATERIAL[code];
+	}
+
 	/**
 	 * Encodes a char into an integer Piece code
 	 * @param letter Letter to encode
@@ -1,7 +1,5 @@
 package com.dalton.ChessEngine;
 
-import java.util.ArrayList;
-
 import static com.dalton.ChessEngine.PieceCode.*;
 import static com.dalton.ChessEngine.Types.*;
 
@@ -51,11 +49,8 @@ public class Queen extends Piece{
 	 * @param position The position index to check from
 	 */
 	@Override
-	public void getMoves(ArrayList<Integer> moves,final long enemies,final long blanks,final int position){//todo idea: split into table of rays and generate all rays with all blocked lengths
-		//Bishop moves
-		diagLineCheck(moves,enemies,blanks,position);
-		//Rook moves
-		HVLineCheck(moves,enemies,blanks,position);
+	public void getMoves(MoveList moves,final long enemies,final long blanks,final int position){
+		addMoves(moves,MagicBitboard.queenAttacks(position,~blanks),enemies,blanks,position);//Bishop and Rook lines in one lookup
 	}
 
 	/**
@@ -67,8 +62,6 @@ public class Queen extends Piece{
 	 */
 	@Override
 	public long attackMask(final long enemies,final long blanks,final int pos){
-		long mask=PieceCode.pieceObj(PieceCode.encodeChar('b',team)).attackMask(enemies,blanks,pos);//get Bishop mask
-		mask|=PieceCode.pieceObj(PieceCode.encodeChar('r',team)).attackMask(enemies,blanks,pos);//get Rook mask
-		return mask;
+		return MagicBitboard.queenAttacks(pos,~blanks) & (enemies | blanks);//Bishop and Rook lines in one lookup
 	}
 }
@@ -1,7 +1,5 @@
 package com.dalton.ChessEngine;
 
-import java.util.ArrayList;
-
 import static com.dalton.ChessEngine.Types.*;
 
 /**
@@ -51,7 +49,7 @@ public class Rook extends Piece{
 	 * @param position The position index to check from
 	 */
 	@Override
-	public void getMoves(ArrayList<Integer> moves,final long enemies,final long blanks,int position){
+	public void getMoves(MoveList moves,final long enemies,final long blanks,int position){
 		HVLineCheck(moves,enemies,blanks,position);
 	}
 
@@ -64,39 +62,6 @@ public class Rook extends Piece{
 	 */
 	@Override
 	public long attackMask(final long enemies,final long blanks,final int pos){
-		long mask=0;
-		int x=Coord.indexToX(pos), y=Coord.indexToY(pos);
-		//horizontal moves
-		int i=pos-1;//start behind the position,
-		for(; i>=Coord.XYToIndex(0,y) && (0!=(blanks & (1L << i))); --i){//and then move backwards until end of row or a non-blank square
-			mask|=1L<<i;
-		}
-		if(i>=Coord.XYToIndex(0,y) && (0!=(enemies & (1L << i)))){//if we found an enemy and the loop exited early
-			mask|=1L<<i;
-		}
-		i=pos+1;//now check from 1 in front of the position
-		for(; i<Coord.XYToIndex(BOARD_SIZE,y) && (0!=(blanks & (1L << i))); ++i){
-			mask|=1L<<i;
-		}
-		if(i<Coord.XYToIndex(BOARD_SIZE,y) && (0!=(enemies & (1L << i)))){
-			mask|=1L<<i;
-		}
-
-		//vertical moves
-		i=pos-BOARD_SIZE;
-		for(; i>=Coord.XYToIndex(x,0) && (0!=(blanks & (1L << i))); i-=BOARD_SIZE){
-			mask|=1L<<i;
-		}
-		if(i>=Coord.XYToIndex(x,0) && (0!=(enemies & (1L << i)))){
-			mask|=1L<<i;
-		}
-		i=pos+BOARD_SIZE;//now check from 1 above of the position
-		for(; i<Coord.XYToIndex(x,BOARD_SIZE) && (0!=(blanks & (1L << i))); i+=BOARD_SIZE){
-			mask|=1L<<i;
-		}
-		if(i<Coord.XYToIndex(x,BOARD_SIZE) && (0!=(enemies & (1L << i)))){
-			mask|=1L<<i;
-		}
-		return mask;
+		return MagicBitboard.rookAttacks(pos,~blanks) & (enemies | blanks);//anything not blank blocks the line, only keep blanks and enemies
 	}
 }
\ No newline at end of file
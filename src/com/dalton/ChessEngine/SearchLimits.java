@@ -0,0 +1,126 @@
+package com.dalton.ChessEngine;
+
+/**
+ * When a search has to stop: a depth, a number of nodes, a time to spend, or a time of day to be done by, whichever comes first.
+ * A limit of 0 means no limit of that kind, only here: the Engine methods taking a depth directly always search at least 1 ply
+ * @author Dalton Herrewynen
+ * @version 1
+ * @see Engine#search(Board,boolean,SearchLimits)
+ */
+public class SearchLimits{
+	/** Deepest depth to search, 0 for the Engine's maximum depth */
+	private int depth;
+	/** Most nodes to search, 0 for no limit */
+	private long nodes;
+	/** Milliseconds to spend on the search, 0 for no limit */
+	private long moveTime;
+	/** System.currentTimeMillis() when the search has to be done, 0 for no limit */
+	private long deadline;
+
+	/** Makes limits with no limit, the search goes to the Engine's maximum depth unless it is stopped */
+	public SearchLimits(){
+		this(0,0,0,0);
+	}
+
+	/**
+	 * Makes limits, 0 for no limit of that kind
+	 * @param depth    Deepest depth to search, 0 for the Engine's maximum depth
+	 * @param nodes    Most nodes to search
+	 * @param moveTime Milliseconds to spend on the search
+	 * @param deadline System.currentTimeMillis() when the search has to be done
+	 */
+	public SearchLimits(int depth,long nodes,long moveTime,long deadline){
+		this.depth=Math.max(0,depth);
+		this.nodes=Math.max(0,nodes);
+		this.moveTime=Math.max(0,moveTime);
+		this.deadline=Math.max(0,deadline);
+	}
+
+	/**
+	 * Makes limits for a game on a clock, the time to spend comes from what is left on the clock and the increment
+	 * @param clock     Milliseconds left on this player's clock
+	 * @param increment Milliseconds added to the clock after each move
+	 * @return Limits with only a move time
+	 * @see Engine#allocateTime(long,long)
+	 */
+	public static SearchLimits fromClock(long clock,long increment){
+		return new SearchLimits(0,0,Engine.allocateTime(clock,increment),0);
+	}
+
+	/**
+	 * Gets the deepest depth to search
+	 * @return Depth in plies, 0 for the Engine's maximum depth
+	 */
+	public int getDepth(){
+		return depth;
+	}
+
+	/**
+	 * Sets the deepest depth to search
+	 * @param depth Depth in plies, 0 for the Engine's maximum depth
+	 */
+	public void setDepth(int depth){
+		this.depth=Math.max(0,depth);
+	}
+
+	/**
+	 * Gets the most nodes to search
+	 * @return Number of nodes, 0 for no limit
+	 */
+	public long getNodes(){
+		return nodes;
+	}
+
+	/**
+	 * Sets the most nodes to search
+	 * @param nodes Number of nodes, 0 for no limit
+	 */
+	public void setNodes(long nodes){
+		this.nodes=Math.max(0,nodes);
+	}
+
+	/**
+	 * Gets how long to spend on the search
+	 * @return Milliseconds, 0 for no limit
+	 */
+	public long getMoveTime(){
+		return moveTime;
+	}
+
+	/**
+	 * Sets how long to spend on the search
+	 * @param moveTime Milliseconds, 0 for no limit
+	 */
+	public void setMoveTime(long moveTime){
+		this.moveTime=Math.max(0,moveTime);
+	}
+
+	/**
+	 * Gets when the search has to be done
+	 * @return System.currentTimeMillis() to be done by, 0 for no limit
+	 */
+	public long getDeadline(){
+		return deadline;
+	}
+
+	/**
+	 * Sets when the search has to be done, for a clock shared by several requests
+	 * @param deadline System.currentTimeMillis() to be done by, 0 for no limit
+	 */
+	public void setDeadline(long deadline){
+		this.deadline=Math.max(0,deadline);
+	}
+
+	/**
+	 * Works out how long the search may take from now, the smaller of the move time and the time left before the deadline
+	 * @return Milliseconds, at least 1, 0 for no limit
+	 */
+	public long getMillis(){
+		long millis=moveTime;
+		if(deadline>0){
+			long left=Math.max(1,deadline-System.currentTimeMillis());//a deadline already gone still gets the shortest search possible
+			millis=(millis>0)? Math.min(millis,left) : left;
+		}
+		return millis;
+	}
+}
@@ -0,0 +1,97 @@
+package com.dalton.ChessEngine;
+
+/**
+ * The result of a search: the principal variation (the line both sides are expected to play), its score, and how much work it took
+ * @author Dalton Herrewynen
+ * @version 1
+ * @see Engine#search(Board,boolean,SearchLimits)
+ */
+public class SearchResult{
+	/** The expected line of play, starting with the best move, can be empty if there were no legal moves */
+	private final MoveList pv;
+	/** Score of the line from the searching player's side, higher is better for them */
+	private final int score;
+	/** Deepest depth that finished */
+	private final int depth;
+	/** Nodes searched */
+	private final long nodes;
+	/** How long the search took in nanoseconds */
+	private final long nanos;
+
+	/**
+	 * Stores the result of a search
+	 * @param pv    The expected line of play, the list is kept, not copied
+	 * @param score Score from the searching player's side
+	 * @param depth Deepest depth that finished
+	 * @param nodes Nodes searched
+	 * @param nanos How long the search took in nanoseconds
+	 */
+	SearchResult(MoveList pv,int score,int depth,long nodes,long nanos){
+		this.pv=pv;
+		this.score=score;
+		this.depth=depth;
+		this.nodes=nodes;
+		this.nanos=nanos;
+	}
+
+	/**
+	 * Gets the move to play
+	 * @return Encoded move integer, blank if there were no legal moves
+	 */
+	public int getBestMove(){
+		return pv.isEmpty()? Move.blank() : pv.get(0);
+	}
+
+	/**
+	 * Gets the principal variation
+	 * @return The expected line of play, best move first
+	 */
+	public MoveList getPV(){
+		return pv;
+	}
+
+	/**
+	 * Gets the score of the principal variation
+	 * @return Score from the searching player's side, higher is better for them
+	 */
+	public int getScore(){
+		return score;
+	}
+
+	/**
+	 * Gets the deepest depth that finished
+	 * @return Depth in plies
+	 */
+	public int getDepth(){
+		return depth;
+	}
+
+	/**
+	 * Gets how many nodes were searched
+	 * @return Number of nodes
+	 */
+	public long getNodes(){
+		return nodes;
+	}
+
+	/**
+	 * Gets how long the search took
+	 * @return Time in milliseconds
+	 */
+	public long getMillis(){
+		return nanos/1_000_000;
+	}
+
+	/**
+	 * Summarizes the search, with the line in long algebraic notation
+	 * @return String like "Depth: 6 Score: 35 Nodes: 12345 Time: 120 ms PV: e2e4 e7e5"
+	 */
+	@Override
+	public String toString(){
+		StringBuilder res=new StringBuilder("Depth: "+depth+" Score: "+score+" Nodes: "+nodes+" Time: "+getMillis()+" ms PV:");
+		for(int i=0; i<pv.size(); ++i){
+			res.append(' ').append(Move.toLongAlgebraic(pv.get(i)));
+		}
+		return res.toString();
+	}
+}
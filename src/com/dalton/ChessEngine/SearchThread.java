@@ -0,0 +1,553 @@
+package com.dalton.ChessEngine;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.dalton.ChessEngine.Types.*;
+
+/**
+ * One thread's share of a search. Everything that changes while searching (the board, undo records, move lists, killer moves, history and the PV table)
+ * belongs to one SearchThread, so several of them can search at once. Only the transposition table and the stop signal are shared, through the Engine,
+ * and the split points the threads work on together.
+ * @author Dalton Herrewynen
+ * @version 1.4
+ * @see Engine#search(Board,boolean,SearchLimits)
+ */
+public class SearchThread{
+	/** How many plies of captures the quiescence search may add past the normal depth */
+	static final int QUIESCENCE_PLIES=32;
+	/** History scores are halved once one reaches this, so they stay below the killer moves */
+	private static final int HISTORY_MAX=1 << 20;
+	/** Half width of the first aspiration window, and the depth where the windows start, shallower depths are too jumpy to guess */
+	private static final int ASPIRATION_WINDOW=50, ASPIRATION_DEPTH=4;
+	/** Null move pruning is only tried with at least this much depth left */
+	private static final int NULL_MOVE_DEPTH=3;
+	/** Late move reductions start once this many moves have been searched, with at least this much depth left */
+	private static final int LMR_MOVES=3, LMR_DEPTH=3;
+	/** How many plies to take off a late quiet move, Arranged[depth][move number], grows with the log of both */
+	private static final int[][] LMR_TABLE=new int[64][64];
+
+	static{
+		for(int depth=1; depth<LMR_TABLE.length; ++depth){
+			for(int move=1; move<LMR_TABLE[depth].length; ++move){
+				LMR_TABLE[depth][move]=(int) (0.75+Math.log(depth)*Math.log(move)/2.25);
+			}
+		}
+	}
+	/** Nodes with at least this much depth left can be split between threads, shallower trees are cheaper to search than to hand out */
+	private static final int SPLIT_DEPTH=4;
+	/** Captures that lose material by static exchange are skipped with this much depth left or less */
+	private static final int SEE_DEPTH=2;
+	/** Safety margin for delta pruning, a capture that can't get within this of alpha even with positional gains is skipped */
+	private static final int DELTA_MARGIN=300;
+	/** How many nodes are searched between looking at the clock and the other threads, must be a power of 2 minus 1 */
+	static final int CHECK_INTERVAL=1023;
+	/** The Engine that owns this thread, it holds the transposition table and the stop signal */
+	private final Engine engine;
+	/** Which thread this is, 0 is the main thread, the helpers count up from 1 */
+	private final int id;
+	/** Pre-Allocated undo records so one board can have moves made and unmade on it, Arranged[ply] */
+	private final UndoInfo[] undoStack;
+	/** Pre-Allocated move lists for re-use in the search, Arranged[ply] */
+	private final MoveList[] moveLists;
+	/** Pre-Allocated move pickers that order each ply's moves, Arranged[ply] */
+	private final MovePicker[] pickers;
+	/** Two quiet moves per ply that recently caused a cutoff, tried right after the captures, Arranged[ply][newest first] */
+	private final int[][] killers;
+	/** How often each quiet move caused a cutoff, weighted by depth, Arranged[side][start][end] */
+	private final int[][][] history=new int[2][TOTAL_SQUARES][TOTAL_SQUARES];
+	/** Triangular table of principal variations, row ply holds the best line found from that ply on, Arranged[ply][ply..pvLength[ply]] */
+	private final int[][] pvTable;
+	/** Where each row of the PV table ends */
+	private final int[] pvLength;
+	/** The principal variation of the last finished depth, searched first by the next depth */
+	private MoveList lastPV=new MoveList();
+	/** True while the search is still walking down the last principal variation */
+	private boolean followPV;
+	/** Nodes this thread searched in the current search */
+	private long nodes;
+	/** Stop once this thread alone has searched this many nodes, the total over all threads is checked by the Engine */
+	private long nodeLimit;
+	/** Set when the search has to stop, everything searched after that is thrown away */
+	private boolean aborted;
+	/** The innermost split point this thread is working under, null if none */
+	private SplitPoint splitPoint;
+
+	/**
+	 * Makes a thread's search state, sized so it can search to the Engine's maximum depth
+	 * @param engine   The Engine that owns this thread
+	 * @param id       0 for the main thread, counts up from 1 for the helpers
+	 * @param maxDepth The deepest search this thread will be asked for
+	 */
+	SearchThread(Engine engine,int id,int maxDepth){
+		this.engine=engine;
+		this.id=id;
+		undoStack=UndoInfo.stack(maxDepth+QUIESCENCE_PLIES+1);//indexed by ply, which goes up to maxDepth plus the captures after it
+		moveLists=new MoveList[undoStack.length];
+		pickers=new MovePicker[undoStack.length];
+		killers=new int[undoStack.length][2];
+		pvTable=new int[undoStack.length][undoStack.length];
+		pvLength=new int[undoStack.length];
+		for(int i=0; i<moveLists.length; ++i){//pre-allocate the space for the search's move lists
+			moveLists[i]=new MoveList();
+			pickers[i]=new MovePicker();
+		}
+	}
+
+	/**
+	 * Searches deeper and deeper until the depth runs out or the Engine says to stop. Helpers with odd ids stay one ply ahead of the main thread,
+	 * so the threads don't all search the same tree in the same order, and what each one stores in the shared table helps the others
+	 * @param board      The board to search, moves are made and unmade on it so it should be this thread's own copy
+	 * @param player     Who is moving, WHITE or BLACK
+	 * @param depth      The deepest depth to search
+	 * @param legalMoves The root moves, this thread's own copy, it gets reordered
+	 * @param millis     Time allowed in milliseconds, 0 for no limit, the main thread won't start a depth it can't finish
+	 * @param start      System.nanoTime() when the search started
+	 * @return The principal variation and score of the deepest depth that finished
+	 */
+	SearchResult iterate(Board board,boolean player,int depth,MoveList legalMoves,long millis,long start){
+		MoveList pv=new MoveList();
+		pv.add(legalMoves.get(0));//the caller made sure there is at least one move
+		int bestScore=0,completed=0,score;
+		for(int iteration=1+(id & 1); iteration<=depth; ++iteration){
+			int window=ASPIRATION_WINDOW,alpha=-Engine.INFINITY,beta=Engine.INFINITY;
+			if(engine.getAspirationWindows() && iteration>=ASPIRATION_DEPTH && Math.abs(bestScore)<Engine.MATE_BOUND){//the score rarely moves far between depths, a narrow window gets more cutoffs
+				alpha=bestScore-window;
+				beta=bestScore+window;
+			}
+			while(true){
+				followPV=true;
+				score=searchRoot(board,player,iteration,legalMoves,alpha,beta);
+				if(aborted) break;
+				if(score<=alpha) alpha=Math.max(-Engine.INFINITY,alpha-window);//the real score is outside the window, open that side up wider each time
+				else if(score>=beta) beta=Math.min(Engine.INFINITY,beta+window);
+				else break;
+				window*=2;
+			}
+			if(aborted) break;//a partly searched depth might have missed the real best move
+			bestScore=score;
+			completed=iteration;
+			pv=getPV();
+			lastPV=new MoveList(pv);
+			if(id==0) engine.report(new SearchResult(pv,bestScore,completed,nodes,System.nanoTime()-start));//ready in case the search is stopped
+			if(id==0 && millis>0 && (System.nanoTime()-start)*2>millis*1_000_000) break;//the next depth takes several times longer, don't start what can't finish
+		}
+		return new SearchResult(pv,bestScore,completed,nodes,System.nanoTime()-start);
+	}
+
+	/**
+	 * Gets ready for a new search, the killer moves are forgotten and the history is aged
+	 * @param maxNodes Most nodes this thread may search, 0 for no limit
+	 */
+	void newSearch(long maxNodes){
+		nodes=0;
+		nodeLimit=(maxNodes>0)? maxNodes : Long.MAX_VALUE;
+		aborted=false;
+		followPV=false;
+		lastPV.clear();
+		for(int[] plyKillers: killers){//killers are about positions from the last search, history still says which moves tend to be good
+			plyKillers[0]=plyKillers[1]=Move.blank();
+		}
+		ageHistory();
+	}
+
+	/**
+	 * Gets the principal variation this thread found at the root
+	 * @return A new list of the line, best move first
+	 */
+	MoveList getPV(){
+		MoveList pv=new MoveList(pvLength[0]);
+		for(int i=0; i<pvLength[0]; ++i){
+			pv.add(pvTable[0][i]);
+		}
+		return pv;
+	}
+
+	/**
+	 * Gets how many nodes this thread searched in the last search
+	 * @return Number of nodes
+	 */
+	long getNodes(){
+		return nodes;
+	}
+
+	/**
+	 * Counts a node and checks the limits, the clock and the other threads are only looked at every CHECK_INTERVAL nodes since that is slow.
+	 * Cutoffs at the split points this thread works under are checked every node
+	 * @return True if the search has to stop
+	 */
+	private boolean countNode(){
+		if(++nodes>=nodeLimit || ((nodes & CHECK_INTERVAL)==0 && engine.checkLimits(CHECK_INTERVAL+1))){
+			engine.stopSearch();//no thread can finish once the limit is reached
+			return true;
+		}
+		return splitPoint!=null && splitPoint.isCutoff();//another thread already refuted a node above this one
+	}
+
+	/**
+	 * Searches every root move to one depth, the best move so far is searched first with the full window and the rest only have to prove they are worse
+	 * @param board      The board to search, moves are made and unmade on it
+	 * @param player     Who is moving, WHITE or BLACK
+	 * @param depth      How many plies to search, including the root move
+	 * @param legalMoves The root moves, the best one is moved to the front
+	 * @param alpha      Lowest score to look for, the score is at most this if every move is worse
+	 * @param beta       Highest score to look for, the score is at least this if a move is better
+	 * @return The score of the best move from the player's side, only valid if the search was not aborted
+	 */
+	private int searchRoot(Board board,boolean player,int depth,MoveList legalMoves,int alpha,int beta){
+		int best=0,score;
+		for(int i=0; i<legalMoves.size(); ++i){
+			score=searchRootMove(board,player,depth,legalMoves.get(i),alpha,beta,i==0);
+			followPV=false;
+			if(aborted) break;
+			if(score>alpha){
+				alpha=score;
+				best=i;
+				if(alpha>=beta) break;//above the window, the search will be done again with a wider one
+			}
+		}
+		legalMoves.swap(0,best);//searched first next time
+		return alpha;
+	}
+
+	/**
+	 * Takes root moves from a counter shared with the other threads until there are none left, each thread searches the moves it takes on its own board.
+	 * Every move only has to beat the best score any thread has found so far, which the threads share
+	 * @param board      This thread's board, moves are made and unmade on it
+	 * @param player     Who is moving, WHITE or BLACK
+	 * @param depth      How many plies to search, including the root move
+	 * @param legalMoves The root moves, read by every thread so it must not change until they are all done
+	 * @param next       Index of the next root move nobody has taken yet
+	 * @param alpha      Best score found by any thread so far, raised when this thread finds better
+	 * @param best       Score of the root move this thread already searched to this depth, -INFINITY if none
+	 * @return The best score this thread found, its line is in the PV table, -INFINITY if nothing it searched beat the shared alpha
+	 */
+	int searchSharedRoot(Board board,boolean player,int depth,MoveList legalMoves,AtomicInteger next,AtomicInteger alpha,int best){
+		if(best==-Engine.INFINITY) pvLength[0]=0;
+		int index,bound,score;
+		while(!aborted && (index=next.getAndIncrement())<legalMoves.size()){
+			bound=alpha.get();
+			score=searchRootMove(board,player,depth,legalMoves.get(index),bound,Engine.INFINITY,false);
+			if(aborted) break;
+			if(score>bound){//better than anything found when this move started, so better than anything this thread found too
+				best=score;
+				alpha.accumulateAndGet(score,Math::max);//another thread may have found better in the meantime
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Searches one root move, the PV table gets its line if it beats alpha
+	 * @param board  The board to search, the move is made and unmade on it
+	 * @param player Who is moving, WHITE or BLACK
+	 * @param depth  How many plies to search, including the root move
+	 * @param move   The root move
+	 * @param alpha  Score the move has to beat
+	 * @param beta   Highest score to look for
+	 * @param first  True for the first move of a depth, it is searched with the full window and starts a new line,
+	 *               the others first get a null window that only asks if they are better
+	 * @return The score of the move from the player's side, only valid if the search was not aborted
+	 */
+	int searchRootMove(Board board,boolean player,int depth,int move,int alpha,int beta,boolean first){
+		UndoInfo undo=undoStack[0];
+		int score;
+		pvLength[1]=1;
+		board.makeMove(move,undo);
+		if(first){
+			pvLength[0]=0;
+			score=-negamax(board,!player,depth-1,1,-beta,-alpha,true);//the other player answers
+		}else{
+			score=-negamax(board,!player,depth-1,1,-alpha-1,-alpha,true);//null window, only asks if the move is better
+			if(score>alpha && !aborted) score=-negamax(board,!player,depth-1,1,-beta,-alpha,true);//it was, find out by how much
+		}
+		board.unmakeMove(move,undo);
+		if(score>alpha && !aborted) updatePV(0,move);
+		return score;
+	}
+
+	/**
+	 * Scores the board from one player's side
+	 * @param board The current board state
+	 * @param team  Whose side to score from
+	 * @return Higher is better for team
+	 */
+	private int evaluate(Board board,boolean team){
+		return (team==WHITE)? engine.score(board) : -engine.score(board);
+	}
+
+	/**
+	 * Gets the score of the board by searching possible moves (negamax, every score is from the side to move so one branch serves both players).
+	 * The first move is searched with the full window, the rest with a null window that only proves they are worse (principal variation search),
+	 * a move that turns out better is searched again with the full window.
+	 * @param board    The current board, moves are made and unmade on it so it is left as it was
+	 * @param team     Who's turn? WHITE or BLACK
+	 * @param depth    How many more levels to search
+	 * @param ply      How many moves from the root this is, indexes the pre-allocated lists and the killer moves
+	 * @param alpha    Score the side to move is already sure of
+	 * @param beta     Score the other side is already sure of, anything at or above this gets cut off
+	 * @param nullMove True if the side to move may pass to try null move pruning, false right after a pass
+	 * @return Score from the side to move
+	 */
+	private int negamax(Board board,boolean team,int depth,int ply,int alpha,int beta,boolean nullMove){
+		pvLength[ply]=ply;
+		if(aborted) return 0;//unwind as fast as possible, the caller throws the result away
+		if(depth<=0) return quiesce(board,team,ply,alpha,beta);//at the end of the search, play out the captures so the score is stable
+		if(countNode()) aborted=true;
+		alpha=Math.max(alpha,-Engine.MATE+ply);//mate distance pruning, nothing here can beat being mated right now or mating on the next move
+		beta=Math.min(beta,Engine.MATE-ply-1);
+		if(alpha>=beta) return alpha;//a shorter mate was already found
+		final boolean pvNode=beta-alpha>1;//null window nodes only need to know better or worse
+		final long hash=board.getHash();
+		final TranspositionTable table=engine.getTable();
+		long entry=table.probe(hash);
+		int ttMove=Move.blank();
+		if(entry!=0){//seen this position before, maybe by another move order or another thread
+			ttMove=TranspositionTable.getMove(entry);
+			if(!pvNode && TranspositionTable.getDepth(entry)>=depth){//searched at least as deep as we need, the score can be trusted, the PV is always searched so its line is kept
+				int stored=TranspositionTable.fromStored(TranspositionTable.getScore(entry),ply);
+				switch(TranspositionTable.getBound(entry)){
+					case TranspositionTable.EXACT -> {
+						return stored;
+					}
+					case TranspositionTable.LOWER -> {
+						if(stored>=beta) return stored;
+					}
+					case TranspositionTable.UPPER -> {
+						if(stored<=alpha) return stored;
+					}
+				}
+			}
+		}
+		final boolean checked=Engine.inCheck(board,team);
+		if(nullMove && engine.getNullMovePruning() && !pvNode && !checked && depth>=NULL_MOVE_DEPTH && hasPieces(board,team) && evaluate(board,team)>=beta){
+			int reduction=(depth>=6)? 3 : 2,score;//if passing still fails high, a real move would too, so a shallow search of the pass is enough
+			board.makeNullMove(undoStack[ply]);
+			score=-negamax(board,!team,depth-1-reduction,ply+1,-beta,-beta+1,false);
+			board.unmakeNullMove(undoStack[ply]);
+			if(aborted) return 0;
+			if(score>=beta) return (score>=Engine.MATE_BOUND)? beta : score;//a mate found after passing isn't a real mate
+		}
+		if(followPV){//still on the last principal variation, its move goes first
+			if(ply<lastPV.size()) ttMove=lastPV.get(ply);
+			else followPV=false;
+		}
+		MoveList moves=moveLists[ply];//get reference to the pre-allocated move list for this ply
+		MoveGenerator.generateLegalMoves(board,team,moves);//only legal moves, so running out of them means the game is over
+		if(moves.isEmpty()) return checked? -Engine.MATE+ply : 0;//checkmated, sooner is worse, or stalemated which is a draw
+		final int side=(team==WHITE)? 0 : 1,startAlpha=alpha;
+		MovePicker picker=pickers[ply];
+		picker.init(moves,board,ttMove,killers[ply][0],killers[ply][1],history[side]);//best moves first, so the cutoffs come early
+		int bestScore=-Engine.INFINITY,bestMove=Move.blank(),score,move,searched=0;
+		while(picker.hasNext() && !aborted){
+			if(searched>0 && depth>=SPLIT_DEPTH && engine.canSplit()){//Young Brothers Wait: the eldest brother is searched, the rest can be shared out
+				SplitPoint split=new SplitPoint(splitPoint,board,team,depth,ply,alpha,beta,bestScore,bestMove,searched,checked,picker);
+				splitPoint=split;//the cutoff check now covers this split point as well
+				engine.recruit(split);
+				searchSplit(split,board);
+				split.join();
+				splitPoint=split.getParent();
+				aborted=engine.isStopped() || (splitPoint!=null && splitPoint.isCutoff());//a cutoff at this split point is not a reason to stop
+				if(aborted) return 0;
+				bestScore=split.getBestScore();
+				bestMove=split.getBestMove();
+				int end=split.copyPV(pvTable[ply]);
+				if(end>0) pvLength[ply]=end;
+				break;
+			}
+			move=picker.next();
+			if(searched>0 && depth<=SEE_DEPTH && !pvNode && !checked && picker.losesMaterial()) continue;//this close to the leaves a losing capture won't come back
+			score=searchMove(board,team,move,depth,ply,alpha,beta,searched,checked);
+			followPV=false;
+			++searched;
+			if(score>bestScore){
+				bestScore=score;
+				bestMove=move;
+				if(score>alpha){
+					alpha=score;
+					updatePV(ply,move);
+					if(alpha>=beta){
+						if(!MovePicker.isTactical(move)) rememberCutoff(move,side,depth,ply);//a quiet move that refuted the other side's move
+						break;
+					}
+				}
+			}
+		}
+		if(aborted) return 0;//an unfinished search must not go in the table
+		int bound=TranspositionTable.EXACT;
+		if(bestScore>=beta) bound=TranspositionTable.LOWER;//cut off early, the real score is this or better
+		else if(bestScore<=startAlpha) bound=TranspositionTable.UPPER;//every move failed low, the real score is this or worse
+		table.store(hash,depth,TranspositionTable.toStored(bestScore,ply),bound,bestMove);
+		return bestScore;
+	}
+
+	/**
+	 * Searches one move at a node, the first move gets the full window, the rest a null window first, and late quiet moves are reduced
+	 * @param board    The board at the node, the move is made and unmade on it
+	 * @param team     Who's turn? WHITE or BLACK
+	 * @param move     The move to search
+	 * @param depth    How many more levels to search at the node
+	 * @param ply      How many moves from the root the node is
+	 * @param alpha    Score the side to move is already sure of
+	 * @param beta     Score the other side is already sure of
+	 * @param searched How many moves at the node were searched before this one
+	 * @param checked  True if the side to move is in check
+	 * @return Score of the move from the side to move, only valid if the search was not aborted
+	 */
+	private int searchMove(Board board,boolean team,int move,int depth,int ply,int alpha,int beta,int searched,boolean checked){
+		UndoInfo undo=undoStack[ply];//get reference to the pre-allocated undo record for this ply
+		int score;
+		pvLength[ply+1]=ply+1;
+		board.makeMove(move,undo);//work on the one board in place, nothing is copied
+		if(searched==0){
+			score=-negamax(board,!team,depth-1,ply+1,-beta,-alpha,true);
+		}else{
+			int reduction=0;
+			if(engine.getLateMoveReductions() && searched>=LMR_MOVES && depth>=LMR_DEPTH && !checked && !MovePicker.isTactical(move)
+					&& move!=killers[ply][0] && move!=killers[ply][1] && !Engine.inCheck(board,!team)){//late quiet moves that don't give check are rarely best
+				reduction=Math.min(LMR_TABLE[Math.min(depth,63)][Math.min(searched,63)],depth-1);
+			}
+			score=-negamax(board,!team,depth-1-reduction,ply+1,-alpha-1,-alpha,true);
+			if(score>alpha && reduction>0 && !aborted) score=-negamax(board,!team,depth-1,ply+1,-alpha-1,-alpha,true);//it surprised us, check at full depth
+			if(score>alpha && score<beta && !aborted) score=-negamax(board,!team,depth-1,ply+1,-beta,-alpha,true);
+		}
+		board.unmakeMove(move,undo);
+		return score;
+	}
+
+	/**
+	 * Searches the moves of a split point until there are none left or one causes a cutoff, each thread working there calls this with its own board
+	 * @param split The split point
+	 * @param board This thread's board at the split point's position, moves are made and unmade on it
+	 */
+	private void searchSplit(SplitPoint split,Board board){
+		final boolean team=split.getTeam();
+		final int ply=split.getPly(),depth=split.getDepth();
+		int index,move,score,alpha;
+		while(!aborted && !split.isCutoff() && (index=split.take())<split.getMoveCount()){
+			move=split.getMove(index);
+			alpha=split.getAlpha();
+			score=searchMove(board,team,move,depth,ply,alpha,split.getBeta(),split.getMoveNumber(index),split.isChecked());
+			if(aborted) break;//stopped part way, the score is no good
+			if(split.update(move,score,pvTable[ply+1],pvLength[ply+1]) && !MovePicker.isTactical(move)){
+				rememberCutoff(move,(team==WHITE)? 0 : 1,depth,ply);
+			}
+		}
+	}
+
+	/**
+	 * Helps another thread with a split point, called on an idle thread
+	 * @param split The split point to help with
+	 */
+	void helpSplit(SplitPoint split){
+		aborted=engine.isStopped() || split.isCutoff();//recruited after a stop or a cutoff, there is nothing to do
+		followPV=false;
+		splitPoint=split;
+		searchSplit(split,new Board(split.getBoard()));
+		splitPoint=null;
+	}
+
+	/**
+	 * Makes a move the head of the PV at a ply, followed by the PV the next ply found under it
+	 * @param ply  How many moves from the root
+	 * @param move The new best move
+	 */
+	private void updatePV(int ply,int move){
+		pvTable[ply][ply]=move;
+		System.arraycopy(pvTable[ply+1],ply+1,pvTable[ply],ply+1,pvLength[ply+1]-ply-1);
+		pvLength[ply]=Math.max(pvLength[ply+1],ply+1);
+	}
+
+	/**
+	 * Searches only captures and promotions until the position is quiet, so the score is not taken in the middle of a trade.
+	 * The side to move may "stand pat" and keep the static score instead of capturing, since it is never forced to capture
+	 * @param board The current board, moves are made and unmade on it so it is left as it was
+	 * @param team  Who's turn? WHITE or BLACK
+	 * @param ply   How many moves from the root this is
+	 * @param alpha Score the side to move is already sure of
+	 * @param beta  Score the other side is already sure of
+	 * @return Score from the side to move
+	 */
+	private int quiesce(Board board,boolean team,int ply,int alpha,int beta){
+		if(aborted) return 0;
+		if(countNode()) aborted=true;
+		final int standPat=evaluate(board,team);
+		if(ply>=moveLists.length) return standPat;//out of room, very long capture chains are not worth following, checked before any per-ply array is touched
+		pvLength[ply]=ply;
+		if(standPat>=beta) return standPat;//doing nothing is already good enough for a cutoff
+		alpha=Math.max(alpha,standPat);//or it sets the score to beat
+		MoveList moves=moveLists[ply];
+		MoveGenerator.generateCaptures(board,team,moves);
+		MovePicker picker=pickers[ply];
+		picker.init(moves,board,Move.blank(),Move.blank(),Move.blank(),history[(team==WHITE)? 0 : 1]);//only captures, so MVV-LVA does the ordering
+		UndoInfo undo=undoStack[ply];
+		int bestScore=standPat,score,move,gain;
+		while(picker.hasNext() && !aborted){
+			move=picker.next();
+			if(picker.losesMaterial()) break;//the losing captures come last, and losing material doesn't quiet anything down
+			gain=PieceCode.materialValue((Move.getSpecialCode(move)==Move.EnPassantCapture)? PieceCode.PawnW : board.getSquare(Move.getEndIndex(move)));
+			if(Move.isPawnPromotion(move)) gain+=PieceCode.materialValue(Move.getPieceCode(move))-PieceCode.materialValue(PieceCode.PawnW);
+			if(standPat+gain+DELTA_MARGIN<=alpha) continue;//delta pruning, even winning the piece can't catch up
+			board.makeMove(move,undo);
+			if(isKing(undo.getCaptured())) score=Engine.MATE;//the last move left a King hanging
+			else score=-quiesce(board,!team,ply+1,-beta,-alpha);
+			board.unmakeMove(move,undo);
+			if(score>bestScore){
+				bestScore=score;
+				if(score>alpha){
+					alpha=score;
+					if(alpha>=beta) break;
+				}
+			}
+		}
+		return bestScore;
+	}
+
+	/**
+	 * Checks if a team has anything besides pawns and the King. Without pieces, zugzwang (where passing would be the best move) is common,
+	 * so null move pruning is not safe
+	 * @param board The current board state
+	 * @param team  WHITE or BLACK
+	 * @return True if the team has a Rook, Knight, Bishop or Queen
+	 */
+	private static boolean hasPieces(Board board,boolean team){
+		final int side=(team==WHITE)? PieceCode.WHITE_OFFSET : PieceCode.BLACK_OFFSET;
+		return 0!=(board.alliedPieceMask(team) & ~(board.searchPiece(PieceCode.PawnW+side) | board.searchPiece(PieceCode.KingW+side)));
+	}
+
+	/**
+	 * Checks if a piece code is a King of either team
+	 * @param code The piece code
+	 * @return True for either King
+	 */
+	private static boolean isKing(int code){
+		return (code | 1)==PieceCode.KingB;//clear the team bit by setting it
+	}
+
+	/**
+	 * Records a quiet move that caused a cutoff, it becomes a killer move for this ply and its history score goes up
+	 * @param move  The move that caused the cutoff
+	 * @param side  0 for WHITE, 1 for BLACK
+	 * @param depth How deep the cutoff was searched, deep cutoffs count for more
+	 * @param ply   How many moves from the root
+	 */
+	private void rememberCutoff(int move,int side,int depth,int ply){
+		if(killers[ply][0]!=move){//keep two different killers, newest first
+			killers[ply][1]=killers[ply][0];
+			killers[ply][0]=move;
+		}
+		int[] scores=history[side][Move.getStartIndex(move)];
+		scores[Move.getEndIndex(move)]+=depth*depth;
+		if(scores[Move.getEndIndex(move)]>=HISTORY_MAX) ageHistory();//keep history below the killer moves
+	}
+
+	/** Halves every history score, old cutoffs slowly matter less than new ones */
+	private void ageHistory(){
+		for(int[][] side: history){
+			for(int[] start: side){
+				for(int end=0; end<TOTAL_SQUARES; ++end){
+					start[end]>>=1;
+				}
+			}
+		}
+	}
+}
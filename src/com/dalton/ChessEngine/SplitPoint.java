@@ -0,0 +1,249 @@
+package com.dalton.ChessEngine;
+
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A node whose remaining moves are shared between search threads (Young Brothers Wait): the first move is searched alone,
+ * then the younger brothers are handed out one at a time to every thread helping, which all raise the same alpha.
+ * A cutoff by any of them stops the others, along with every split point below this one.
+ * @author Dalton Herrewynen
+ * @version 1
+ * @see SearchThread
+ */
+public class SplitPoint{
+	/** The split point the owning thread was working under, a cutoff there stops this one too, null if none */
+	private final SplitPoint parent;
+	/** The position at the node, helpers copy it, it is never changed */
+	private final Board board;
+	/** Who is moving at the node, WHITE or BLACK */
+	private final boolean team;
+	/** How many more levels to search, how many moves from the root the node is, and the score that causes a cutoff */
+	private final int depth, ply, beta;
+	/** True if the side to move is in check, late moves are not reduced then */
+	private final boolean checked;
+	/** The moves left to search, best first */
+	private final int[] moves;
+	/** How many moves the owner searched before the split, so the late move reductions count from the right place */
+	private final int searchedBefore;
+	/** Index of the next move nobody has taken yet */
+	private final AtomicInteger next=new AtomicInteger();
+	/** Score the side to move is sure of, the best score and its move, shared by every thread here */
+	private int alpha, bestScore, bestMove;
+	/** Best line found since the split, starting with the move at the node, empty if no move beat alpha */
+	private int[] pv;
+	/** How many moves are in the line */
+	private int pvLength=0;
+	/** Set when a move scores at least beta, the rest don't need searching */
+	private volatile boolean cutoff=false;
+	/** Helpers working here, only touched by the owning thread */
+	private final ArrayList<ForkJoinTask<?>> helpers=new ArrayList<>();
+
+	/**
+	 * Makes a split point from the state of a node after its first moves
+	 * @param parent    The split point the owning thread is working under, null if none
+	 * @param board     The position at the node, it is copied
+	 * @param team      Who is moving, WHITE or BLACK
+	 * @param depth     How many more levels to search
+	 * @param ply       How many moves from the root
+	 * @param alpha     Score the side to move is already sure of
+	 * @param beta      Score the other side is already sure of
+	 * @param bestScore Best score found so far at the node
+	 * @param bestMove  The move that scored it
+	 * @param searched  How many moves were already searched
+	 * @param checked   True if the side to move is in check
+	 * @param picker    Where the rest of the moves come from, it is emptied
+	 */
+	SplitPoint(SplitPoint parent,Board board,boolean team,int depth,int ply,int alpha,int beta,int bestScore,int bestMove,int searched,boolean checked,MovePicker picker){
+		this.parent=parent;
+		this.board=new Board(board);
+		this.team=team;
+		this.depth=depth;
+		this.ply=ply;
+		this.alpha=alpha;
+		this.beta=beta;
+		this.bestScore=bestScore;
+		this.bestMove=bestMove;
+		this.searchedBefore=searched;
+		this.checked=checked;
+		MoveList rest=new MoveList();
+		while(picker.hasNext()){//the picker is not safe to share, so take the moves out of it in order
+			rest.add(picker.next());
+		}
+		moves=rest.toArray();
+	}
+
+	/**
+	 * Takes the next move nobody has searched
+	 * @return Index of the move, at least getMoveCount() if there are none left
+	 */
+	int take(){
+		return next.getAndIncrement();
+	}
+
+	/**
+	 * Gets a move
+	 * @param index Index from take()
+	 * @return Encoded move integer
+	 */
+	int getMove(int index){
+		return moves[index];
+	}
+
+	/**
+	 * Gets how many moves were split off
+	 * @return Number of moves
+	 */
+	int getMoveCount(){
+		return moves.length;
+	}
+
+	/**
+	 * Gets how many moves at the node came before a move, for late move reductions
+	 * @param index Index from take()
+	 * @return Number of moves searched before it
+	 */
+	int getMoveNumber(int index){
+		return searchedBefore+index;
+	}
+
+	/**
+	 * Records the score of a move, it becomes the best if it beats everything so far
+	 * @param move    The move searched
+	 * @param score   Its score from the side to move
+	 * @param line    The searching thread's PV table row for the next ply, holding the line under the move
+	 * @param lineEnd Where that row ends
+	 * @return True if the move caused a cutoff
+	 */
+	synchronized boolean update(int move,int score,int[] line,int lineEnd){
+		if(score<=bestScore || cutoff) return false;
+		bestScore=score;
+		bestMove=move;
+		if(score<=alpha) return false;
+		alpha=score;
+		if(pv==null) pv=new int[line.length];//as long as the threads' PV rows
+		pv[0]=move;
+		pvLength=Math.max(1,lineEnd-ply);
+		System.arraycopy(line,ply+1,pv,1,pvLength-1);
+		if(alpha>=beta) cutoff=true;
+		return cutoff;
+	}
+
+	/**
+	 * Checks if the search here can stop, because of a cutoff here or at any split point above
+	 * @return True if it can
+	 */
+	boolean isCutoff(){
+		for(SplitPoint split=this; split!=null; split=split.parent){
+			if(split.cutoff) return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Copies the best line found since the split into a PV table row
+	 * @param row The owning thread's PV table row for this ply
+	 * @return Where the row ends now, or 0 if no move beat alpha since the split and the row was left alone
+	 */
+	synchronized int copyPV(int[] row){
+		if(pvLength==0) return 0;
+		System.arraycopy(pv,0,row,ply,pvLength);
+		return ply+pvLength;
+	}
+
+	/**
+	 * Adds a helper, called only by the owning thread
+	 * @param helper The task helping here
+	 */
+	void addHelper(ForkJoinTask<?> helper){
+		helpers.add(helper);
+	}
+
+	/** Waits for every helper to finish, called only by the owning thread */
+	void join(){
+		for(ForkJoinTask<?> helper: helpers){
+			helper.join();
+		}
+	}
+
+	/**
+	 * Gets the split point the owner was working under
+	 * @return The parent, null if none
+	 */
+	SplitPoint getParent(){
+		return parent;
+	}
+
+	/**
+	 * Gets the position at the node, it must not be changed
+	 * @return The board
+	 */
+	Board getBoard(){
+		return board;
+	}
+
+	/**
+	 * Gets who is moving
+	 * @return WHITE or BLACK
+	 */
+	boolean getTeam(){
+		return team;
+	}
+
+	/**
+	 * Gets how many more levels to search
+	 * @return Depth in plies
+	 */
+	int getDepth(){
+		return depth;
+	}
+
+	/**
+	 * Gets how many moves from the root the node is
+	 * @return Ply
+	 */
+	int getPly(){
+		return ply;
+	}
+
+	/**
+	 * Gets the score that causes a cutoff
+	 * @return Beta
+	 */
+	int getBeta(){
+		return beta;
+	}
+
+	/**
+	 * Gets if the side to move is in check
+	 * @return True if it is
+	 */
+	boolean isChecked(){
+		return checked;
+	}
+
+	/**
+	 * Gets the score the side to move is sure of
+	 * @return Alpha, raised as the threads find better moves
+	 */
+	synchronized int getAlpha(){
+		return alpha;
+	}
+
+	/**
+	 * Gets the best score found at the node
+	 * @return Best score
+	 */
+	synchronized int getBestScore(){
+		return bestScore;
+	}
+
+	/**
+	 * Gets the move that scored best
+	 * @return Encoded move integer
+	 */
+	synchronized int getBestMove(){
+		return bestMove;
+	}
+}
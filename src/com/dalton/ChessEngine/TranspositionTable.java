@@ -0,0 +1,189 @@
+package com.dalton.ChessEngine;
+
+import java.util.Arrays;
+
+/**
+ * Fixed size hash table of search results, keyed by the position hash, so transposed positions are not searched twice.<br/>
+ * Every entry is packed into one long: the score, the best move, the depth searched, the bound type and the age of the search.
+ * Entries are stored as two longs, {key XOR data, data}, the same trick as the PerftTable, so every search thread can share it without locks.
+ * A torn write just reads as a miss.<br/>
+ * Entries are grouped into buckets of 2: the first slot keeps the deepest result, the second slot is always replaced.
+ * @author Dalton Herrewynen
+ * @version 1.1
+ * @see PerftTable
+ */
+public class TranspositionTable{
+	/** Bound types, EXACT has both bits so it counts as a lower and an upper bound */
+	public static final int LOWER=1, UPPER=2, EXACT=3;
+	/** Deepest depth an entry can hold */
+	public static final int MAX_DEPTH=127;
+	/** Entries per bucket, and longs per entry */
+	private static final int BUCKET_SIZE=2, ENTRY_LONGS=2;
+	/** Bit positions of each field in the packed data */
+	private static final int MOVE_SHIFT=32, DEPTH_SHIFT=53, BOUND_SHIFT=60, AGE_SHIFT=62;
+	/** Masks for each field after shifting down */
+	private static final long MOVE_MASK=(1L << 21)-1, DEPTH_MASK=MAX_DEPTH, BOUND_MASK=3, AGE_MASK=3;
+	/** Slots in the table, BUCKET_SIZE entries of ENTRY_LONGS each per bucket */
+	private final long[] entries;
+	/** Number of buckets minus one, bucket count is a power of 2 so this masks a hash into an index */
+	private final int bucketMask;
+	/** Counts up once per search so entries from old searches can be replaced first */
+	private volatile int age;
+
+	/**
+	 * Makes an empty table
+	 * @param megabytes How much memory to use, rounded down to a power of 2 number of buckets
+	 */
+	public TranspositionTable(int megabytes){
+		long bytes=Math.max(1,megabytes)*1024L*1024L;
+		int buckets=Integer.highestOneBit((int) Math.min(bytes/(BUCKET_SIZE*ENTRY_LONGS*Long.BYTES),1 << 27));//32 bytes per bucket, capped so the array length fits in an int
+		entries=new long[buckets*BUCKET_SIZE*ENTRY_LONGS];
+		bucketMask=buckets-1;
+	}
+
+	/**
+	 * Looks up a position
+	 * @param hash The position hash, including the side to move
+	 * @return The packed entry, 0 if the position is not in the table
+	 * @see #getScore(long)
+	 * @see #getMove(long)
+	 * @see #getDepth(long)
+	 * @see #getBound(long)
+	 */
+	public long probe(long hash){
+		final int index=bucketIndex(hash);
+		for(int slot=index; slot<index+BUCKET_SIZE*ENTRY_LONGS; slot+=ENTRY_LONGS){
+			final long check=entries[slot],data=entries[slot+1];
+			if((check ^ data)==hash && data!=0) return data;//the bound bits are never 0 so an empty slot can't match
+		}
+		return 0;
+	}
+
+	/**
+	 * Stores a search result. A result for the same position replaces the old one, otherwise the deepest or newest result
+	 * takes the first slot and the second slot is always replaced
+	 * @param hash  The position hash, including the side to move
+	 * @param depth How many plies were searched below the position
+	 * @param score The score found
+	 * @param bound EXACT, LOWER if the score is at least this good, UPPER if the score is at most this good
+	 * @param move  The best move found, blank if none, the old best move is kept if there is one
+	 */
+	public void store(long hash,int depth,int score,int bound,int move){
+		final int index=bucketIndex(hash),deep=index,always=index+ENTRY_LONGS;
+		int slot=always;
+		if(matches(deep,hash)){//same position, keep it in its slot
+			slot=deep;
+		}else if(!matches(always,hash)){
+			final long old=entries[deep+1];
+			if(old==0 || getDepth(old)<=depth || getAge(old)!=age){//new result is deeper, or the deep one is from an old search
+				entries[always]=entries[deep];//the old deep one gets a second chance in the other slot
+				entries[always+1]=old;
+				slot=deep;
+			}
+		}
+		if(Move.isBlank(move) && matches(slot,hash)) move=getMove(entries[slot+1]);//don't forget a best move we already knew
+		final long data=(score & 0xFFFFFFFFL) | ((move & MOVE_MASK) << MOVE_SHIFT) | ((long) Math.min(Math.max(depth,0),MAX_DEPTH) << DEPTH_SHIFT)
+				| ((bound & BOUND_MASK) << BOUND_SHIFT) | ((long) age << AGE_SHIFT);
+		entries[slot]=hash ^ data;
+		entries[slot+1]=data;
+	}
+
+	/**
+	 * Checks if a slot holds a position
+	 * @param slot Index of the entry in the array
+	 * @param hash The position hash
+	 * @return True if it does
+	 */
+	private boolean matches(int slot,long hash){
+		return (entries[slot] ^ entries[slot+1])==hash && entries[slot+1]!=0;
+	}
+
+	/**
+	 * Finds the first slot of a position's bucket
+	 * @param hash The position hash
+	 * @return Index into the entries array
+	 */
+	private int bucketIndex(long hash){
+		return (int) (hash & bucketMask)*BUCKET_SIZE*ENTRY_LONGS;
+	}
+
+	/** Marks the start of a new search, entries from before this are replaced first */
+	public void newSearch(){
+		age=(age+1) & (int) AGE_MASK;
+	}
+
+	/** Empties the table */
+	public void clear(){
+		Arrays.fill(entries,0);
+	}
+
+	/**
+	 * Converts a score for storing. Mate scores count plies from the root, but the same position can be reached at any ply,
+	 * so they are stored counting from the position instead
+	 * @param score The score from the search
+	 * @param ply   How many moves from the root the position is
+	 * @return The score to store
+	 */
+	public static int toStored(int score,int ply){
+		if(score>=Engine.MATE_BOUND) return score+ply;
+		if(score<=-Engine.MATE_BOUND) return score-ply;
+		return score;
+	}
+
+	/**
+	 * Converts a stored score back for the search, undoes toStored at the ply the position was reached at this time
+	 * @param score The stored score
+	 * @param ply   How many moves from the root the position is
+	 * @return The score for the search
+	 */
+	public static int fromStored(int score,int ply){
+		if(score>=Engine.MATE_BOUND) return score-ply;
+		if(score<=-Engine.MATE_BOUND) return score+ply;
+		return score;
+	}
+
+	/**
+	 * Gets the score from a packed entry
+	 * @param entry The packed entry from probe
+	 * @return The score
+	 */
+	public static int getScore(long entry){
+		return (int) entry;//low 32 bits, the cast keeps the sign
+	}
+
+	/**
+	 * Gets the best move from a packed entry
+	 * @param entry The packed entry from probe
+	 * @return Encoded move integer, blank if none was stored
+	 */
+	public static int getMove(long entry){
+		return (int) ((entry >>> MOVE_SHIFT) & MOVE_MASK);
+	}
+
+	/**
+	 * Gets the depth from a packed entry
+	 * @param entry The packed entry from probe
+	 * @return How many plies were searched
+	 */
+	public static int getDepth(long entry){
+		return (int) ((entry >>> DEPTH_SHIFT) & DEPTH_MASK);
+	}
+
+	/**
+	 * Gets the bound type from a packed entry
+	 * @param entry The packed entry from probe
+	 * @return EXACT, LOWER or UPPER
+	 */
+	public static int getBound(long entry){
+		return (int) ((entry >>> BOUND_SHIFT) & BOUND_MASK);
+	}
+
+	/**
+	 * Gets the age from a packed entry
+	 * @param entry The packed entry from probe
+	 * @return Which search stored it, counts around from 0 to 3
+	 */
+	private static int getAge(long entry){
+		return (int) ((entry >>> AGE_SHIFT) & AGE_MASK);
+	}
+}
@@ -0,0 +1,46 @@
+package com.dalton.ChessEngine;
+
+/**
+ * Everything a move destroys that cannot be worked out from the move itself, so the move can be taken back.<br/>
+ * Searches keep one of these per ply in an undo stack and re-use them, so making and unmaking moves never allocates.
+ * @author Dalton Herrewynen
+ * @version 1
+ * @see Board#makeMove(int,UndoInfo)
+ * @see Board#unmakeMove(int,UndoInfo)
+ */
+public class UndoInfo{
+	/** Piece code of the piece that was captured, Blank if nothing was */
+	int captured;
+	/** The EnPassant mask before the move */
+	long EnPassant;
+	/** The unmoved mask before the move */
+	long unmoved;
+	/** The Zobrist key before the move */
+	long hash;
+
+	/** Creates an empty record, filled in by Board.makeMove */
+	public UndoInfo(){
+		captured=PieceCode.Blank;
+	}
+
+	/**
+	 * Gets the piece that the move captured
+	 * @return Piece code, Blank if the move did not capture
+	 */
+	public int getCaptured(){
+		return captured;
+	}
+
+	/**
+	 * Makes an undo stack, one record per ply
+	 * @param size How many plies deep the stack goes
+	 * @return Array of empty records
+	 */
+	public static UndoInfo[] stack(int size){
+		UndoInfo[] stack=new UndoInfo[size];
+		for(int i=0; i<size; ++i){
+			stack[i]=new UndoInfo();
+		}
+		return stack;
+	}
+}
@@ -0,0 +1,113 @@
+package com.dalton.ChessEngine;
+
+import java.util.Random;
+
+import static com.dalton.ChessEngine.Types.*;
+
+/**
+ * Zobrist hashing, every piece on every square, the castling rights, the EnPassant file and the side to move each get a random key.
+ * A position's hash is all of its keys XOR'd together, so the same position always hashes the same no matter how it was reached.
+ * @author Dalton Herrewynen
+ * @version 2
+ */
+public abstract class Zobrist{//class can't be instantiated, but it has static helper methods
+	/** Keys for each piece on each square, Arranged[pieceCode][index] */
+	private static final long[][] pieceKeys=new long[PieceCode.PIECE_TYPES][TOTAL_SQUARES];
+	/** Keys for each combination of the 4 castling rights */
+	private static final long[] castleKeys=new long[16];
+	/** Keys for the file of the pawn that can be captured by EnPassant */
+	private static final long[] EnPassantKeys=new long[BOARD_SIZE];
+	/** Key XOR'd in when BLACK is to move */
+	private static final long BLACKKey;
+	/** Squares that must be unmoved for each castling right, King and Rook together, in the same order as the right bits */
+	private static final long[] castleSquares={
+			0b0000000000000000000000000000000000000000000000000000000010010000L,//WHITE King side
+			0b0000000000000000000000000000000000000000000000000000000000010001L,//WHITE Queen side
+			0b1001000000000000000000000000000000000000000000000000000000000000L,//BLACK King side
+			0b0001000100000000000000000000000000000000000000000000000000000000L};//BLACK Queen side
+
+	static{
+		Random random=new Random(0x5EED_C0DEL);//fixed seed so hashes are the same every run
+		for(int code=0; code<PieceCode.PIECE_TYPES; ++code){
+			for(int index=0; index<TOTAL_SQUARES; ++index){
+				pieceKeys[code][index]=random.nextLong();
+			}
+		}
+		for(int i=0; i<castleKeys.length; ++i){
+			castleKeys[i]=random.nextLong();
+		}
+		for(int i=0; i<EnPassantKeys.length; ++i){
+			EnPassantKeys[i]=random.nextLong();
+		}
+		BLACKKey=random.nextLong();
+	}
+
+	/**
+	 * Gets the key for one piece on one square
+	 * @param code  The piece code
+	 * @param index The square
+	 * @return 64-bit key
+	 */
+	public static long pieceKey(int code,int index){
+		return pieceKeys[code][index];
+	}
+
+	/**
+	 * Turns the unmoved mask into the 4 castling right bits
+	 * @param unmoved Mask of the squares that have not moved
+	 * @return Number from 0 to 15, one bit per castling right
+	 */
+	public static int castleRights(long unmoved){
+		int rights=0;
+		for(int i=0; i<castleSquares.length; ++i){
+			if(castleSquares[i]==(unmoved & castleSquares[i])) rights|=1 << i;//King and Rook both unmoved
+		}
+		return rights;
+	}
+
+	/**
+	 * Gets the key for the castling rights held by an unmoved mask
+	 * @param unmoved Mask of the squares that have not moved
+	 * @return 64-bit key
+	 */
+	public static long castleKey(long unmoved){
+		return castleKeys[castleRights(unmoved)];
+	}
+
+	/**
+	 * Gets the key for the EnPassant vulnerability
+	 * @param EnPassant The mask holding the pawn that can be captured by EnPassant
+	 * @return 64-bit key, 0 if there is no EnPassant
+	 */
+	public static long EnPassantKey(long EnPassant){
+		if(EnPassant==0) return 0;
+		return EnPassantKeys[Long.numberOfTrailingZeros(EnPassant) & XYMAX];//only the file matters, the rank always matches the side to move
+	}
+
+	/**
+	 * Gets the key for the side to move
+	 * @param team WHITE or BLACK
+	 * @return 64-bit key, 0 for WHITE
+	 */
+	public static long sideKey(boolean team){
+		return (team==WHITE)? 0 : BLACKKey;
+	}
+
+	/**
+	 * Hashes a whole position from scratch, Board keeps its own hash up to date so this is for setting up and checking
+	 * @param board The board
+	 * @return 64-bit hash
+	 * @see Board#getHash()
+	 */
+	public static long hash(Board board){
+		long hash=castleKey(board.getUnmoved()) ^ EnPassantKey(board.getEnPassant()) ^ sideKey(board.getTurn()),positions;
+		for(int code=0; code<PieceCode.PIECE_TYPES; ++code){
+			positions=board.searchPiece(code);
+			while(positions!=0){
+				hash^=pieceKeys[code][Long.numberOfTrailingZeros(positions)];
+				positions&=positions-1;
+			}
+		}
+		return hash;
+	}
+}
@@ -20,7 +20,7 @@ import static com.dalton.ChessEngine.UtilsForTests.*;
 public class BishopTest{
 	Board board;
 	Engine engine;
-	ArrayList<Integer> gotMoves, filteredMoves;
+	MoveList gotMoves, filteredMoves;
 	ArrayList<Coord> gotCoords, expectedCoords;
 
 	@Before
@@ -28,8 +28,8 @@ public class BishopTest{
 		board=new Board(Board.CLEAR);
 		gotCoords=new ArrayList<>();
 		expectedCoords=new ArrayList<>();
-		gotMoves=new ArrayList<>();
-		filteredMoves=new ArrayList<>();
+		gotMoves=new MoveList();
+		filteredMoves=new MoveList();
 		engine=new Engine(1,2);
 	}
 
@@ -79,7 +79,7 @@ public class BishopTest{
 			gotCoords.sort(Comparator.comparingInt(Coord::getIndex));//sort the coord, so they are in same order and comparisons will work
 			expectedCoords.sort(Comparator.comparingInt(Coord::getIndex));
 
-			for(int move: gotMoves){//test correct piece code
+			for(int move: gotMoves.toArray()){//test correct piece code
 				assertEquals("Piece code should match the Bishop",pieceCode,Move.getPieceCode(move));
 			}
 
@@ -115,7 +115,7 @@ public class BishopTest{
 		board.setSquare(piece.pieceCode,piecePos.getIndex());
 		gotMoves=Engine.getLegalMoves(board,piece.pieceCode);
 		assertFalse("There should be encoded move integers here",gotMoves.isEmpty());
-		for(int move: gotMoves){
+		for(int move: gotMoves.toArray()){
 			assertEquals("Moves should have starting position correct",piecePos.toString(),Coord.orderedPair(Move.getStartIndex(move)));
 			assertEquals("Move should be of Normal type (0)",Move.normalMove,Move.getSpecialCode(move));
 			assertEquals("Piece code, converted to pretty printed name",PieceCode.decodePieceName(piece.pieceCode),Move.getPieceName(move));
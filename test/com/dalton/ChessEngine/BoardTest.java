@@ -4,6 +4,8 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Random;
+
 import static org.junit.Assert.*;
 import static com.dalton.ChessEngine.Types.*;
 import static com.dalton.ChessEngine.PieceCode.*;
@@ -400,4 +402,104 @@ public class BoardTest{
 			assertEquals("Piece tracking masks for code: "+i+" need to match",board.searchPiece(i),blankBoard.searchPiece(i));
 		}
 	}
+
+	/** Unmoved squares should only be reported where a piece still is */
+	@Test
+	public void testGetUnmoved(){
+		assertEquals("Every piece on a new board is unmoved",board.alliedPieceMask(WHITE) | board.alliedPieceMask(BLACK),board.getUnmoved());
+		board.makeMove(Move.encode(Move.pawnDoubleMove,PawnW,Coord.XYToIndex(4,1),Coord.XYToIndex(4,3)));
+		assertFalse("The pawn that moved is no longer unmoved",0!=(board.getUnmoved() & (1L << Coord.XYToIndex(4,1))));
+		assertFalse("The square the pawn moved to is not unmoved",0!=(board.getUnmoved() & (1L << Coord.XYToIndex(4,3))));
+		assertNotEquals("The King has not moved",0,board.getUnmoved() & (1L << Coord.XYToIndex(Board.KingX,0)));
+	}
+
+	/** Every legal move, made and then unmade, must leave the board exactly as it was */
+	@Test
+	public void testUnmakeMove(){
+		String[] positions={"R3K2R/P1PPQPB1/BN2PNP1/3pn3/1P2p3/2n2q1P/pppbbppp/r3k2r w KQkq - 0 1",//castling, EnPassant and pins (Kiwipete)
+				"RNBQ1K1R/PP1pBPPP/2P5/8/2b5/8/ppp1nNpp/rnbqk2r w KQ - 1 8",//promotions
+				"8/8/8/1pP4R/k7/8/8/7K w - c6 0 1"};//EnPassant ready to capture
+		UndoInfo undo=new UndoInfo();
+		for(String fen: positions){
+			board=PGNConverter.applyFEN(fen);
+			boolean team=fen.split(" ")[1].equals("w");
+			MoveList moves=Engine.getLegalMoves(board,team);
+			for(int move: moves.toArray()){
+				Board before=new Board(board);
+				board.makeMove(move,undo);
+				board.unmakeMove(move,undo);
+				assertEquals("EnPassant should be restored after "+Move.describe(move),before.getEnPassant(),board.getEnPassant());
+				assertEquals("Unmoved pieces should be restored after "+Move.describe(move),before.getUnmoved(),board.getUnmoved());
+				for(int i=0; i<PIECE_TYPES; ++i){
+					assertEquals("Pieces with code "+i+" should be restored after "+Move.describe(move),before.searchPiece(i),board.searchPiece(i));
+				}
+			}
+		}
+	}
+
+	/** The undo record should know what was captured */
+	@Test
+	public void testUndoCaptured(){
+		UndoInfo undo=new UndoInfo();
+		board=PGNConverter.applyFEN("8/8/8/1pP4R/k7/8/8/7K w - c6 0 1");
+		board.makeMove(Move.encode(Move.EnPassantCapture,PawnW,Coord.XYToIndex(1,4),Coord.XYToIndex(2,5)),undo);
+		assertEquals("EnPassant captures the pawn beside it",PawnB,undo.getCaptured());
+		board.makeMove(Move.encode(Move.capture,KingW,Coord.XYToIndex(0,3),Coord.XYToIndex(0,4)),undo);
+		assertEquals("Moving onto a blank square captures nothing",Blank,undo.getCaptured());
+	}
+
+	/** Passing the turn clears EnPassant and flips the side, and taking it back leaves the board as it was */
+	@Test
+	public void testNullMove(){
+		UndoInfo undo=new UndoInfo();
+		board.makeMove(Move.encode(Move.pawnDoubleMove,PawnW,Coord.XYToIndex(4,1),Coord.XYToIndex(4,3)));
+		Board before=new Board(board);
+		board.makeNullMove(undo);
+		assertEquals("Passing cancels EnPassant",0,board.getEnPassant());
+		assertEquals("BLACK passed, so WHITE moves again",WHITE,board.getTurn());
+		assertEquals("Hash must still match the position",Zobrist.hash(board),board.getHash());
+		board.unmakeNullMove(undo);
+		assertEquals("Taking back the pass should restore the board",before,board);
+	}
+
+	/** getSquare reads the mailbox and the occupancy masks are cached, both must always agree with the bitboards, including after unmaking moves */
+	@Test
+	public void testCachesMatchBitboards(){
+		Random random=new Random(7);//fixed seed so failures can be repeated
+		UndoInfo undo=new UndoInfo();
+		board=PGNConverter.applyFEN("R3K2R/P1PPQPB1/BN2PNP1/3pn3/1P2p3/2n2q1P/pppbbppp/r3k2r w KQkq - 0 1");
+		for(int ply=0; ply<200; ++ply){
+			MoveList moves=Engine.getLegalMoves(board,board.getTurn());
+			if(moves.isEmpty()) break;
+			for(int move: moves.toArray()){
+				board.makeMove(move,undo);
+				checkCaches("after "+Move.describe(move));
+				board.unmakeMove(move,undo);
+				checkCaches("after unmaking "+Move.describe(move));
+			}
+			board.makeMove(moves.get(random.nextInt(moves.size())));
+		}
+	}
+
+	/**
+	 * Checks every square of the mailbox and the occupancy masks against the piece bitboards
+	 * @param when Describes the last change, for the failure message
+	 */
+	private void checkCaches(String when){
+		long white=0,black=0;
+		for(int code=0; code<PIECE_TYPES; code+=2){
+			white|=board.searchPiece(code);
+			black|=board.searchPiece(code+1);
+		}
+		assertEquals("WHITE pieces are wrong "+when,white,board.alliedPieceMask(WHITE));
+		assertEquals("BLACK pieces are wrong "+when,black,board.alliedPieceMask(BLACK));
+		assertEquals("Occupied squares are wrong "+when,white | black,board.getOccupied());
+		for(int index=0; index<TOTAL_SQUARES; ++index){
+			int expectedCode=Blank;
+			for(int code=0; code<PIECE_TYPES; ++code){
+				if((board.searchPiece(code) & (1L << index))!=0) expectedCode=code;
+			}
+			assertEquals("Square "+Coord.indexToPGN(index)+" is wrong "+when,decodePieceName(expectedCode),decodePieceName(board.getSquare(index)));
+		}
+	}
 }
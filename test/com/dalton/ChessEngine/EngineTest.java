@@ -0,0 +1,332 @@
+package com.dalton.ChessEngine;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static com.dalton.ChessEngine.Types.*;
+
+/**
+ * Tests the search, FEN strings here use the engine's lowercase for WHITE
+ * @author Dalton Herrewynen
+ * @version 1
+ */
+public class EngineTest{
+	Engine engine;
+
+	@Before
+	public void setUp(){
+		engine=new Engine(1,30);
+		engine.setHashSize(1);
+	}
+
+	/** A free Queen should be taken */
+	@Test
+	public void testTakesHangingQueen(){
+		Board board=PGNConverter.applyFEN("4K3/8/8/3Q4/8/8/8/3rk3 w - - 0 1");//WHITE Rook on d1 can take the BLACK Queen on d5
+		int move=engine.getBestMove(board,WHITE,3);
+		assertEquals("Rook should take the Queen: "+Move.describe(move),Coord.XYToIndex(3,4),Move.getEndIndex(move));
+	}
+
+	/** Even a 1 ply search has to see the recapture, the quiescence search plays out the trade */
+	@Test
+	public void testSeesRecapture(){
+		Board board=PGNConverter.applyFEN("4K3/8/4P3/3P4/8/8/8/3qk3 w - - 0 1");//BLACK pawn on d5 is guarded by the pawn on e6
+		int move=engine.getBestMove(board,WHITE,1);
+		assertNotEquals("Queen should not take a guarded pawn: "+Move.describe(move),Coord.XYToIndex(3,4),Move.getEndIndex(move));
+	}
+
+	/** The principal variation must be a line of legal moves that starts with the best move */
+	@Test
+	public void testPrincipalVariation(){
+		Board board=PGNConverter.applyFEN("R3K2R/P1PPQPB1/BN2PNP1/3pn3/1P2p3/2n2q1P/pppbbppp/r3k2r w KQkq - 0 1");
+		SearchResult result=engine.search(board,WHITE,4,0,0);
+		MoveList pv=result.getPV();
+		assertEquals("Depth 4 should finish",4,result.getDepth());
+		assertFalse("There should be a line",pv.isEmpty());
+		assertEquals("The line starts with the best move",result.getBestMove(),pv.get(0));
+		boolean team=WHITE;
+		for(int move: pv.toArray()){
+			assertTrue("Illegal move in the line "+Move.describe(move)+" on\n"+board,contains(Engine.getLegalMoves(board,team),move));
+			board.makeMove(move);
+			team=!team;
+		}
+	}
+
+	/** Scores are from the searching player's side, being a Queen up is good for BLACK too */
+	@Test
+	public void testScoreFromPlayersSide(){
+		Board board=PGNConverter.applyFEN("3QK3/PPP5/8/8/8/8/ppp5/4k3 b - - 0 1");//BLACK has an extra Queen
+		assertTrue("BLACK should be winning",engine.search(board,BLACK,3,0,0).getScore()>1000);
+	}
+
+	/** Mate scores count the plies to the mate, so a quicker mate scores higher */
+	@Test
+	public void testMateDistance(){
+		Board board=PGNConverter.applyFEN("K7/8/1k6/8/8/8/8/7r w - - 0 1");//Rook to h8 mates right away
+		SearchResult result=engine.search(board,WHITE,5,0,0);
+		assertEquals("Mate in 1 is 1 ply away",Engine.MATE-1,result.getScore());
+		assertEquals("Rook should mate: "+Move.describe(result.getBestMove()),Coord.XYToIndex(7,7),Move.getEndIndex(result.getBestMove()));
+		board=PGNConverter.applyFEN("K7/8/2k5/8/8/8/8/7r w - - 0 1");//King to b6 first, then the Rook mates
+		assertEquals("Mate in 2 is 3 plies away",Engine.MATE-3,engine.search(board,WHITE,5,0,0).getScore());
+	}
+
+	/** A stalemate is a draw, not a win, even when taking a piece or pinning one would leave the other side with no moves */
+	@Test
+	public void testAvoidsStalemate(){
+		Board board=PGNConverter.applyFEN("KN6/P1k5/p7/8/8/8/8/7r w - - 0 1");//taking the Knight, or pinning it with the Rook, leaves BLACK no moves
+		SearchResult result=engine.search(board,WHITE,4,0,0);
+		int move=result.getBestMove();
+		assertNotEquals("Taking the Knight is stalemate: "+Move.describe(move),Coord.XYToIndex(1,7),Move.getEndIndex(move));
+		assertNotEquals("Pinning the Knight is stalemate: "+Move.describe(move),Coord.XYToIndex(7,7),Move.getEndIndex(move));
+		assertTrue("WHITE is still better, a Rook against a Knight",result.getScore()>0);
+	}
+
+	/** A depth of 0 is a 1 ply search, not a search with no depth limit */
+	@Test
+	public void testZeroDepth(){
+		Board board=new Board(Board.DEFAULT);
+		SearchResult result=engine.search(board,WHITE,0,0,0);
+		assertEquals("Should search 1 ply",1,result.getDepth());
+		assertTrue("Should return a legal move",contains(Engine.getLegalMoves(board,WHITE),engine.getBestMove(board,WHITE,0)));
+	}
+
+	/** Late move reductions only save time, on a tactical position they must find the same move and score in fewer nodes */
+	@Test
+	public void testLateMoveReductions(){
+		Board board=PGNConverter.applyFEN("R3K2R/P1PPQPB1/BN2PNP1/3pn3/1P2p3/2n2q1P/pppbbppp/r3k2r w KQkq - 0 1");
+		SearchResult reduced=engine.search(board,WHITE,5,0,0);
+		Engine full=new Engine(1,30);
+		full.setHashSize(1);
+		full.setLateMoveReductions(false);
+		SearchResult result=full.search(board,WHITE,5,0,0);
+		assertEquals("Same best move: "+Move.describe(reduced.getBestMove())+" "+Move.describe(result.getBestMove()),result.getBestMove(),reduced.getBestMove());
+		assertEquals("Same score",result.getScore(),reduced.getScore());
+		assertTrue("Reduced search took "+reduced.getNodes()+" nodes, full search "+result.getNodes(),reduced.getNodes()<result.getNodes());
+	}
+
+	/**
+	 * A mate only seen at depth 8 makes the score jump far out of the aspiration window, high when mating and low when being mated.
+	 * The search has to open the window back up and end with the same move and score as a full window search
+	 */
+	@Test
+	public void testAspirationWindows(){
+		String[] positions={"K7/8/8/3k4/8/8/8/7r w - - 0 1","K7/8/2k5/8/8/8/8/7r b - - 0 1"};//WHITE mates in 3, BLACK gets mated in 2
+		boolean[] teams={WHITE,BLACK};
+		for(int i=0; i<positions.length; ++i){
+			Board board=PGNConverter.applyFEN(positions[i]);
+			Engine windowedEngine=new Engine(1,30),full=new Engine(1,30),shallow=new Engine(1,30);//fresh engines, so no table or history carries over
+			shallow.setHashSize(1);
+			windowedEngine.setHashSize(1);
+			full.setHashSize(1);
+			full.setAspirationWindows(false);
+			assertTrue("No mate in sight yet at depth 7",Math.abs(shallow.search(board,teams[i],7,0,0).getScore())<Engine.MATE_BOUND);
+			SearchResult windowed=windowedEngine.search(board,teams[i],8,0,0);
+			SearchResult result=full.search(board,teams[i],8,0,0);
+			assertTrue("The mate should be found",Math.abs(windowed.getScore())>=Engine.MATE_BOUND);
+			assertEquals("Same score as the full window",result.getScore(),windowed.getScore());
+			assertEquals("Same best move: "+Move.describe(windowed.getBestMove())+" "+Move.describe(result.getBestMove()),result.getBestMove(),windowed.getBestMove());
+		}
+	}
+
+	/**
+	 * Trebuchet, mutual zugzwang with only Kings and pawns: WHITE has to go round with the King to win the pawn, passing would lose nothing here
+	 * but is not a legal move. With null move pruning on, the search must not pass in pawn endings, or it plays Kb3 and calls it a draw
+	 */
+	@Test
+	public void testNullMoveZugzwang(){
+		Board board=PGNConverter.applyFEN("8/8/3K4/3P4/2kp4/8/8/8 w - - 0 1");
+		SearchResult result=engine.search(board,WHITE,9,0,0);
+		assertEquals("King should head for b5: "+Move.describe(result.getBestMove()),Coord.XYToIndex(1,4),Move.getEndIndex(result.getBestMove()));
+		assertTrue("WHITE wins a pawn",result.getScore()>100);
+		Engine full=new Engine(1,30);
+		full.setHashSize(1);
+		full.setNullMovePruning(false);
+		assertEquals("Same score as without null moves",full.search(board,WHITE,9,0,0).getScore(),result.getScore());
+	}
+
+	/** Passing at a node has to put the hash and side to move back, the board a thread searches on must be left as it was */
+	@Test
+	public void testNullMoveRestoresBoard(){
+		Board board=PGNConverter.applyFEN("R3K2R/P1PPQPB1/BN2PNP1/3pn3/1P2p3/2n2q1P/pppbbppp/r3k2r w KQkq - 0 1");
+		long[] nodes=new long[2];
+		for(int i=0; i<nodes.length; ++i){
+			Engine searcher=new Engine(1,30);
+			searcher.setHashSize(1);
+			searcher.setNullMovePruning(i==0);
+			searcher.search(board,WHITE,1,0,0);//sets up the Engine's limits for the thread below
+			SearchThread thread=new SearchThread(searcher,0,30);
+			thread.newSearch(0);
+			Board searched=new Board(board);
+			thread.iterate(searched,WHITE,5,Engine.getLegalMoves(searched,WHITE),0,System.nanoTime());
+			assertEquals("Board changed by the search",board,searched);
+			assertEquals("Hash changed by the search",board.getHash(),searched.getHash());
+			assertEquals("Side to move changed by the search",board.getTurn(),searched.getTurn());
+			nodes[i]=thread.getNodes();
+		}
+		assertTrue("Null moves should have cut the search, "+nodes[0]+" nodes against "+nodes[1],nodes[0]<nodes[1]);
+	}
+
+	/** A timed search must come back close to its time budget with a legal move, even when the depth would take forever */
+	@Test
+	public void testTimeLimit(){
+		Board board=new Board(Board.DEFAULT);
+		long start=System.currentTimeMillis();
+		int move=engine.getBestMove(board,WHITE,30,200,0);
+		long spent=System.currentTimeMillis()-start;
+		assertTrue("Took "+spent+" ms for a 200 ms budget",spent<1000);
+		assertTrue("Should return a legal move",contains(Engine.getLegalMoves(board,WHITE),move));
+	}
+
+	/** Helper threads share the table with the main thread, the answer must still be the best legal move, and they stop with it */
+	@Test
+	public void testLazySMP(){
+		Engine threaded=new Engine(3,30);
+		threaded.setHashSize(1);
+		Board board=PGNConverter.applyFEN("4K3/8/8/3Q4/8/8/8/3rk3 w - - 0 1");
+		SearchResult result=threaded.search(board,WHITE,5,0,0);
+		assertEquals("Rook should take the Queen: "+Move.describe(result.getBestMove()),Coord.XYToIndex(3,4),Move.getEndIndex(result.getBestMove()));
+		assertTrue("Should finish at least depth 5",result.getDepth()>=5);
+		board=new Board(Board.DEFAULT);
+		long start=System.currentTimeMillis();
+		int move=threaded.getBestMove(board,WHITE,30,200,0);
+		long spent=System.currentTimeMillis()-start;
+		assertTrue("Took "+spent+" ms for a 200 ms budget",spent<1000);
+		assertTrue("Should return a legal move",contains(Engine.getLegalMoves(board,WHITE),move));
+	}
+
+	/** Splitting the root moves between threads must still find the best move and a legal line */
+	@Test
+	public void testRootSplit(){
+		Engine threaded=new Engine(3,30);
+		threaded.setHashSize(1);
+		threaded.setParallelMode(Engine.ROOT_SPLIT);
+		Board board=PGNConverter.applyFEN("4K3/8/8/3Q4/8/8/8/3rk3 w - - 0 1");
+		SearchResult result=threaded.search(board,WHITE,4,0,0);
+		assertEquals("Rook should take the Queen: "+Move.describe(result.getBestMove()),Coord.XYToIndex(3,4),Move.getEndIndex(result.getBestMove()));
+		assertEquals("Depth 4 should finish",4,result.getDepth());
+		board=PGNConverter.applyFEN("R3K2R/P1PPQPB1/BN2PNP1/3pn3/1P2p3/2n2q1P/pppbbppp/r3k2r w KQkq - 0 1");
+		assertLegalLine(board,WHITE,threaded.search(board,WHITE,4,0,0).getPV());
+	}
+
+	/** The result handed out while splitting the root has to count the nodes already searched */
+	@Test
+	public void testRootSplitReportsNodes() throws InterruptedException{
+		Engine threaded=new Engine(3,30);
+		threaded.setHashSize(1);
+		threaded.setParallelMode(Engine.ROOT_SPLIT);
+		Board board=new Board(Board.DEFAULT);
+		Thread searcher=new Thread(()->threaded.search(board,WHITE,new SearchLimits()));
+		searcher.start();
+		Thread.sleep(200);
+		SearchResult soFar=threaded.stop();
+		searcher.join(5000);
+		assertTrue("Should have finished a depth",soFar.getDepth()>0);
+		assertTrue("Should count the nodes searched",soFar.getNodes()>0);
+	}
+
+	/** Sharing the younger brothers of deep nodes between threads must still find the best move and a legal line */
+	@Test
+	public void testYBWC(){
+		Engine threaded=new Engine(3,30);
+		threaded.setHashSize(1);
+		threaded.setParallelMode(Engine.YBWC);
+		Board board=PGNConverter.applyFEN("4K3/8/8/3Q4/8/8/8/3rk3 w - - 0 1");
+		SearchResult result=threaded.search(board,WHITE,6,0,0);
+		assertEquals("Rook should take the Queen: "+Move.describe(result.getBestMove()),Coord.XYToIndex(3,4),Move.getEndIndex(result.getBestMove()));
+		assertEquals("Depth 6 should finish",6,result.getDepth());
+		board=PGNConverter.applyFEN("R3K2R/P1PPQPB1/BN2PNP1/3pn3/1P2p3/2n2q1P/pppbbppp/r3k2r w KQkq - 0 1");
+		result=threaded.search(board,WHITE,5,0,0);
+		assertEquals("Depth 5 should finish",5,result.getDepth());
+		assertLegalLine(board,WHITE,result.getPV());
+	}
+
+	/** A search with no limits must stop soon after stop() is called from another thread, and hand back a legal move */
+	@Test
+	public void testStop() throws InterruptedException{
+		Board board=new Board(Board.DEFAULT);
+		SearchResult[] result=new SearchResult[1];
+		Thread searcher=new Thread(()->result[0]=engine.search(board,WHITE,new SearchLimits()));
+		searcher.start();
+		Thread.sleep(200);
+		SearchResult soFar=engine.stop();
+		long start=System.currentTimeMillis();
+		searcher.join(5000);
+		long spent=System.currentTimeMillis()-start;
+		assertFalse("Search should have stopped",searcher.isAlive());
+		assertTrue("Took "+spent+" ms to stop",spent<1000);
+		assertNotNull("Should have a result so far",soFar);
+		assertTrue("Best so far should be legal",contains(Engine.getLegalMoves(board,WHITE),soFar.getBestMove()));
+		assertTrue("Should return a legal move",contains(Engine.getLegalMoves(board,WHITE),result[0].getBestMove()));
+	}
+
+	/** A stop() with no search running is for no search, the next search has to run to its limit in every mode */
+	@Test
+	public void testStopWhileIdle(){
+		Board board=new Board(Board.DEFAULT);
+		for(int mode: new int[]{Engine.SEQUENTIAL,Engine.LAZY_SMP,Engine.ROOT_SPLIT,Engine.YBWC}){
+			Engine threaded=new Engine(3,30);
+			threaded.setHashSize(1);
+			threaded.setParallelMode(mode);
+			threaded.stop();
+			assertEquals("Mode "+mode+" was stopped by an old stop()",4,threaded.search(board,WHITE,4,0,0).getDepth());
+			threaded.search(board,WHITE,new SearchLimits(0,1000,0,0));//stopped by its node limit
+			threaded.stop();
+			assertEquals("Mode "+mode+" was stopped by a stop() after the last search",4,threaded.search(board,WHITE,4,0,0).getDepth());
+		}
+	}
+
+	/** A deadline limits the search like a time budget */
+	@Test
+	public void testDeadline(){
+		Board board=new Board(Board.DEFAULT);
+		long start=System.currentTimeMillis();
+		int move=engine.getBestMove(board,WHITE,new SearchLimits(0,0,0,start+200));
+		long spent=System.currentTimeMillis()-start;
+		assertTrue("Took "+spent+" ms for a 200 ms deadline",spent<1000);
+		assertTrue("Should return a legal move",contains(Engine.getLegalMoves(board,WHITE),move));
+	}
+
+	/** The node limit is hard, the search must stop on it and still return a legal move */
+	@Test
+	public void testNodeLimit(){
+		Board board=new Board(Board.DEFAULT);
+		int move=engine.getBestMove(board,WHITE,30,0,5000);
+		assertTrue("Searched "+engine.getNodes()+" nodes for a limit of 5000",engine.getNodes()<=5000);
+		assertTrue("Should return a legal move",contains(Engine.getLegalMoves(board,WHITE),move));
+	}
+
+	/** Thinking time comes from the clock and the increment, and never uses up the whole clock */
+	@Test
+	public void testAllocateTime(){
+		assertEquals("A thirtieth of the clock plus most of the increment",2000+750,Engine.allocateTime(60000,1000));
+		assertTrue("Must leave time on a nearly empty clock",Engine.allocateTime(100,5000)<100);
+		assertEquals("Clock limits search for the allocated time",2000+750,SearchLimits.fromClock(60000,1000).getMoveTime());
+	}
+
+	/**
+	 * Checks that every move of a line is legal when played in order
+	 * @param board Where the line starts, moves are made on it
+	 * @param team  Who moves first
+	 * @param line  The line to check
+	 */
+	private void assertLegalLine(Board board,boolean team,MoveList line){
+		for(int move: line.toArray()){
+			assertTrue("Illegal move in the line "+Move.describe(move)+" on\n"+board,contains(Engine.getLegalMoves(board,team),move));
+			board.makeMove(move);
+			team=!team;
+		}
+	}
+
+	/**
+	 * Checks if a list holds a move
+	 * @param list The list to search
+	 * @param move The encoded move integer
+	 * @return True if found
+	 */
+	private boolean contains(MoveList list,int move){
+		for(int i=0; i<list.size(); ++i){
+			if(list.get(i)==move) return true;
+		}
+		return false;
+	}
+}
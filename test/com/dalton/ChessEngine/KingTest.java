@@ -37,7 +37,7 @@ public class KingTest{
 	private static final int bogusNonCastleMove=Move.blank();
 	Engine engine;
 	Board board, blankState;
-	ArrayList<Integer> gotMoves, filteredMoves;
+	MoveList gotMoves, filteredMoves;
 	ArrayList<Coord> expectedCoords, gotCoords;//these are the destination coord
 
 	King king;
@@ -52,8 +52,8 @@ public class KingTest{
 		qCastlePos=new Coord(0,0);
 		board=new Board(Board.CLEAR);
 		blankState=board.saveState();
-		gotMoves=new ArrayList<>();
-		filteredMoves=new ArrayList<>();
+		gotMoves=new MoveList();
+		filteredMoves=new MoveList();
 		gotCoords=new ArrayList<>();
 		expectedCoords=new ArrayList<>();
 		engine=new Engine(1,2);
@@ -129,7 +129,7 @@ public class KingTest{
 		board.setSquare(king.pieceCode,piecePos.getIndex());
 		gotMoves=Engine.getLegalMoves(board,king.pieceCode);
 
-		for(int gotMove: gotMoves){//check the piece code and special code
+		for(int gotMove: gotMoves.toArray()){//check the piece code and special code
 			assertEquals("Move should be of Normal type (0)",Move.normalMove,Move.getSpecialCode(gotMove));
 			assertEquals("Piece code, should match King",king.pieceCode,Move.getPieceCode(gotMove));
 		}
@@ -176,7 +176,7 @@ public class KingTest{
 		board.setSquare(king.pieceCode,piecePos.getIndex());
 		gotMoves=Engine.getLegalMoves(board,king.pieceCode);
 		assertFalse("There should be encoded move integers here",gotMoves.isEmpty());
-		for(int move: gotMoves){
+		for(int move: gotMoves.toArray()){
 			assertEquals("Moves should have starting position correct",piecePos.toString(),Coord.orderedPair(Move.getStartIndex(move)));
 			assertEquals("Move should be of Normal type",Move.normalMove,Move.getSpecialCode(move));
 			assertEquals("Piece code, converted to pretty printed name",PieceCode.decodePieceName(king.pieceCode),Move.getPieceName(move));
@@ -234,7 +234,7 @@ public class KingTest{
 		int gotCastle=bogusNonCastleMove;//Store if we got a move here, set it to not a castle move for now
 		gotMoves=Engine.getLegalMoves(board,king.pieceCode);
 		gotMoves=findMovesByCode(gotMoves,Move.qSideCastle);
-		for(int gotMove: gotMoves){//Search for a castling move
+		for(int gotMove: gotMoves.toArray()){//Search for a castling move
 			if(Move.getSpecialCode(gotMove)==Move.qSideCastle){//search by type
 				if(gotCastle!=bogusNonCastleMove){//do not allow multiple of the same castling moves
 					Assert.fail("There were multiple Queen Side Castle moves when there should be only one");
@@ -256,7 +256,7 @@ public class KingTest{
 		int gotCastle=bogusNonCastleMove;//Store if we got a move here, set it to not a castle move for now
 		gotMoves=Engine.getLegalMoves(board,king.pieceCode);
 		gotMoves=findMovesByCode(gotMoves,Move.kSideCastle);
-		for(int gotMove: gotMoves){//Search for a castling move
+		for(int gotMove: gotMoves.toArray()){//Search for a castling move
 			if(Move.getSpecialCode(gotMove)==Move.kSideCastle){//search by type
 				if(gotCastle!=bogusNonCastleMove){//do not allow multiple of the same castling moves
 					Assert.fail("There were multiple King Side Castle moves when there should be only one");
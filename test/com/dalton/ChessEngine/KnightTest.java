@@ -25,7 +25,7 @@ public class KnightTest{
 	public static final int minOnBoard=2, maxOnBoard=5;
 	Engine engine;
 	Board board, blankState;
-	ArrayList<Integer> gotMoves, filteredMoves;
+	MoveList gotMoves, filteredMoves;
 	ArrayList<Coord> expectedCoords, gotCoords;//these are the destination coord
 
 	@Before
@@ -33,8 +33,8 @@ public class KnightTest{
 		board=new Board(Board.CLEAR);
 		expectedCoords=new ArrayList<>();
 		gotCoords=new ArrayList<>();
-		gotMoves=new ArrayList<>();
-		filteredMoves=new ArrayList<>();
+		gotMoves=new MoveList();
+		filteredMoves=new MoveList();
 		blankState=board.saveState();
 		engine=new Engine(1,2);
 	}
@@ -72,7 +72,7 @@ public class KnightTest{
 		board.setSquare(piece.pieceCode,piecePos.getIndex());
 		gotMoves=Engine.getLegalMoves(board,piece.pieceCode);
 		assertFalse("There should be encoded move integers here",gotMoves.isEmpty());
-		for(int move: gotMoves){
+		for(int move: gotMoves.toArray()){
 			assertEquals("Moves should have starting position correct",piecePos.toString(),Coord.orderedPair(Move.getStartIndex(move)));
 			assertEquals("Move should be of Normal type (1)",Move.normalMove,Move.getSpecialCode(move));
 			assertEquals("Piece code, converted to pretty printed name",PieceCode.decodePieceName(piece.pieceCode),Move.getPieceName(move));
@@ -196,7 +196,7 @@ public class KnightTest{
 			filteredMoves=findCaptures(gotMoves,board);//just check for captures
 
 			assertEquals("Tile:"+piecePos+" Should have found same number of captures as enemies",expectedCoords.size(),filteredMoves.size());
-			for(int move: gotMoves){
+			for(int move: gotMoves.toArray()){
 				assertEquals("Tile:"+piecePos+" capture move at "+Coord.orderedPair(Move.getEndIndex(move))
 						+" should point to an enemy position",PieceCode.decodeChar(enemy.pieceCode),PieceCode.decodeChar(board.getSquare(Move.getEndIndex(move))));
 				assertTrue("Tile: "+piecePos+": capture move at"+Coord.orderedPair(Move.getEndIndex(move))+
@@ -0,0 +1,75 @@
+package com.dalton.ChessEngine;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+import static com.dalton.ChessEngine.Types.*;
+
+/**
+ * Tests the magic bitboard slider tables against plain ray walking
+ * @author Dalton Herrewynen
+ * @version 1
+ */
+public class MagicBitboardTest{
+	/** How many random boards to check on each square */
+	private static final int samples=200;
+
+	/**
+	 * The slow but obviously correct way to get the slider attacks
+	 * @param pos        Starting square
+	 * @param occupied   Mask of the occupied squares
+	 * @param directions {x,y} directions to walk
+	 * @return 64-bit integer bit mask
+	 */
+	private long walk(int pos,long occupied,int[][] directions){
+		long mask=0;
+		for(int[] dir: directions){
+			Coord cursor=new Coord(pos);
+			while(cursor.addVector(dir[0],dir[1])){//stop when walking off the board
+				mask|=cursor.getMask();
+				if(0!=(occupied & cursor.getMask())) break;//stop on the first piece
+			}
+		}
+		return mask;
+	}
+
+	/** Rook lookups must match walking the horizontal and vertical lines */
+	@Test
+	public void testRookAttacks(){
+		int[][] directions={{1,0},{-1,0},{0,1},{0,-1}};
+		Random random=new Random(1);//fixed seed so failures can be repeated
+		for(int pos=0; pos<TOTAL_SQUARES; ++pos){
+			assertEquals("Empty board at "+Coord.indexToPGN(pos),walk(pos,0,directions),MagicBitboard.rookAttacks(pos,0));
+			for(int i=0; i<samples; ++i){
+				long occupied=random.nextLong() & random.nextLong();//about a quarter of the squares filled
+				assertEquals("At "+Coord.indexToPGN(pos)+" with "+maskString(occupied),walk(pos,occupied,directions),MagicBitboard.rookAttacks(pos,occupied));
+			}
+		}
+	}
+
+	/** Bishop lookups must match walking the diagonal lines */
+	@Test
+	public void testBishopAttacks(){
+		int[][] directions={{1,1},{-1,1},{1,-1},{-1,-1}};
+		Random random=new Random(2);
+		for(int pos=0; pos<TOTAL_SQUARES; ++pos){
+			assertEquals("Empty board at "+Coord.indexToPGN(pos),walk(pos,0,directions),MagicBitboard.bishopAttacks(pos,0));
+			for(int i=0; i<samples; ++i){
+				long occupied=random.nextLong() & random.nextLong();
+				assertEquals("At "+Coord.indexToPGN(pos)+" with "+maskString(occupied),walk(pos,occupied,directions),MagicBitboard.bishopAttacks(pos,occupied));
+			}
+		}
+	}
+
+	/** Queen lookups must be the Rook and Bishop lookups combined */
+	@Test
+	public void testQueenAttacks(){
+		Random random=new Random(3);
+		for(int pos=0; pos<TOTAL_SQUARES; ++pos){
+			long occupied=random.nextLong() & random.nextLong();
+			assertEquals("At "+Coord.indexToPGN(pos),
+					MagicBitboard.rookAttacks(pos,occupied) | MagicBitboard.bishopAttacks(pos,occupied),MagicBitboard.queenAttacks(pos,occupied));
+		}
+	}
+}
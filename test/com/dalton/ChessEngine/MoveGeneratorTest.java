@@ -0,0 +1,210 @@
+package com.dalton.ChessEngine;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+import static com.dalton.ChessEngine.Types.*;
+
+/**
+ * Tests the legal move generator, FEN strings here use the engine's lowercase for WHITE
+ * @author Dalton Herrewynen
+ * @version 1
+ */
+public class MoveGeneratorTest{
+	MoveList moves;
+
+	@Before
+	public void setUp(){
+		moves=new MoveList();
+	}
+
+	/** A Rook pinned on a file may only slide along that file */
+	@Test
+	public void testPinnedPiece(){
+		Board board=PGNConverter.applyFEN("4R3/8/8/8/8/8/4r3/4k3 w - - 0 1");//WHITE Rook on e2 pinned by BLACK Rook on e8
+		MoveList rookMoves=Engine.getLegalMoves(board,PieceCode.RookW);
+		assertEquals("Pinned Rook can only move up the file and capture the pinning Rook",6,rookMoves.size());
+		for(int move: rookMoves.toArray()){
+			assertEquals("Pinned Rook left the file: "+Coord.indexToPGN(Move.getEndIndex(move)),4,Coord.indexToX(Move.getEndIndex(move)));
+		}
+	}
+
+	/** When in check, everything except the King must capture the checker or block it */
+	@Test
+	public void testCheckEvasion(){
+		Board board=PGNConverter.applyFEN("4R3/8/r7/8/8/2n5/8/4k3 w - - 0 1");//BLACK Rook on e8 checks the WHITE King on e1
+		MoveGenerator.generateLegalMoves(board,WHITE,moves);
+		long allowed=0b0001000000010000000100000001000000010000000100000001000000000000L;//e2 through e8
+		for(int move: moves.toArray()){
+			if(Move.getPieceCode(move)==PieceCode.KingW){
+				assertNotEquals("King cannot stay on the checking file",4,Coord.indexToX(Move.getEndIndex(move)));
+			}else{
+				assertNotEquals("Move does not stop the check: "+Move.describe(move),0,allowed & (1L << Move.getEndIndex(move)));
+			}
+		}
+		assertEquals("4 King moves, Rook blocks on e6, Knight blocks on e2 and e4",7,moves.size());
+	}
+
+	/** In double check only the King can move */
+	@Test
+	public void testDoubleCheck(){
+		Board board=PGNConverter.applyFEN("4R3/8/8/8/8/3N4/r7/4k3 w - - 0 1");//BLACK Rook on e8 and Knight on d3 both check the King on e1
+		MoveGenerator.generateLegalMoves(board,WHITE,moves);
+		assertFalse("King should have somewhere to go",moves.isEmpty());
+		for(int move: moves.toArray()){
+			assertEquals("Only the King may move in double check",PieceCode.KingW,Move.getPieceCode(move));
+		}
+	}
+
+	/** EnPassant takes two pieces off the same rank, which can uncover the King */
+	@Test
+	public void testEnPassantDiscoveredCheck(){
+		Board board=PGNConverter.applyFEN("8/8/8/kpP4R/8/8/8/7K w - c6 0 1");//WHITE King on a5, pawn b5, BLACK pawn c5 just moved, BLACK Rook on h5
+		MoveList pawnMoves=Engine.getLegalMoves(board,PieceCode.PawnW);
+		assertEquals("EnPassant would expose the King so it is not legal",0,countMovesByCode(pawnMoves,Move.EnPassantCapture));
+		board=PGNConverter.applyFEN("8/8/8/1pP4R/k7/8/8/7K w - c6 0 1");//same again with the King out of the way
+		pawnMoves=Engine.getLegalMoves(board,PieceCode.PawnW);
+		assertEquals("EnPassant is legal when nothing is uncovered",1,countMovesByCode(pawnMoves,Move.EnPassantCapture));
+	}
+
+	/** The King may not castle through an attacked square */
+	@Test
+	public void testCastleThroughAttack(){
+		Board board=PGNConverter.applyFEN("5R1K/8/8/8/8/8/8/r3k2r w KQ - 0 1");//BLACK Rook on f8 watches f1
+		MoveList kingMoves=Engine.getLegalMoves(board,PieceCode.KingW);
+		assertEquals("King side passes through f1",0,countMovesByCode(kingMoves,Move.kSideCastle));
+		assertEquals("Queen side is safe",1,countMovesByCode(kingMoves,Move.qSideCastle));
+	}
+
+	/** Playing random games, the legal generator must agree with making every pseudo legal move and testing for check */
+	@Test
+	public void testMatchesMakeAndTest(){
+		Random random=new Random(4);//fixed seed so failures can be repeated
+		Board board,moved=new Board(Board.CLEAR);
+		MoveList pseudo=new MoveList();
+		for(int game=0; game<50; ++game){
+			board=PGNConverter.applyFEN("R3K2R/P1PPQPB1/BN2PNP1/3pn3/1P2p3/2n2q1P/pppbbppp/r3k2r w KQkq - 0 1");
+			boolean team=WHITE;
+			for(int ply=0; ply<40; ++ply){
+				MoveGenerator.generateLegalMoves(board,team,moves);
+				Engine.getMoves(board,team,pseudo);
+				int count=0;
+				for(int move: pseudo.toArray()){
+					moved.loadState(board);
+					moved.makeMove(move);
+					if(!Engine.inCheck(moved,team) && !castlesThroughCheck(board,team,move)){
+						++count;
+						assertTrue("Missing legal move "+Move.describe(move)+" on\n"+board,contains(moves,move));
+					}
+				}
+				assertEquals("Legal move count is wrong on\n"+board,count,moves.size());
+				if(moves.isEmpty()) break;
+				board.makeMove(moves.get(random.nextInt(moves.size())));
+				team=!team;
+			}
+		}
+	}
+
+	/** The setwise pawn generator must make the same moves as asking every pawn one at a time */
+	@Test
+	public void testPawnsMatchSingleSquare(){
+		Random random=new Random(5);
+		MoveList single=new MoveList();
+		for(int i=0; i<500; ++i){
+			long pieces=random.nextLong() & random.nextLong() & 0x00FFFFFFFFFFFF00L,//no pawns on the first or last rank
+					whitePawns=pieces & random.nextLong(),blackPawns=pieces & ~whitePawns,
+					others=random.nextLong() & random.nextLong() & ~pieces;
+			long enemies=blackPawns | (others & random.nextLong()),blanks=~(pieces | others);//some of the other squares are enemies, the rest are friends
+			moves.clear();
+			single.clear();
+			MoveGenerator.generatePawnMoves(moves,whitePawns,WHITE,enemies,blanks,~0L);
+			for(int pos=0; pos<TOTAL_SQUARES; ++pos){
+				if(0!=(whitePawns & (1L << pos))) PieceCode.pieceObj(PieceCode.PawnW).getMoves(single,enemies,blanks,pos);
+			}
+			assertEquals("Different number of moves for "+maskString(whitePawns),single.size(),moves.size());
+			for(int move: single.toArray()){
+				assertTrue("Missing "+Move.describe(move)+" for "+maskString(whitePawns),contains(moves,move));
+			}
+		}
+	}
+
+	/** The capture generator must make exactly the captures and promotions the full generator makes */
+	@Test
+	public void testCapturesMatchFullGenerator(){
+		Random random=new Random(8);
+		Board board=PGNConverter.applyFEN("R3K2R/P1PPQPB1/BN2PNP1/3pn3/1P2p3/2n2q1P/pppbbppp/r3k2r w KQkq - 0 1");
+		MoveList all=new MoveList();
+		for(int ply=0; ply<200; ++ply){
+			MoveGenerator.generateCaptures(board,board.getTurn(),moves);
+			Engine.getMoves(board,board.getTurn(),all);
+			int count=0;
+			for(int move: all.toArray()){
+				if(!MovePicker.isTactical(move)) continue;
+				++count;
+				assertTrue("Missing capture "+Move.describe(move)+" on\n"+board,contains(moves,move));
+			}
+			assertEquals("Wrong number of captures on\n"+board,count,moves.size());
+			Engine.getLegalMoves(board,board.getTurn(),all);
+			if(all.isEmpty()) break;
+			board.makeMove(all.get(random.nextInt(all.size())));
+		}
+	}
+
+	/** Static exchange evaluation plays out the whole trade on the square, including pieces lined up behind the first attacker */
+	@Test
+	public void testStaticExchange(){
+		Board board=PGNConverter.applyFEN("K7/8/8/8/3N4/2p5/8/7k w - - 0 1");//WHITE pawn on c3 takes an undefended Knight on d4
+		assertEquals("Free Knight",300,MoveGenerator.staticExchange(board,Move.encode(Move.capture,PieceCode.PawnW,Coord.XYToIndex(2,2),Coord.XYToIndex(3,3))));
+		board=PGNConverter.applyFEN("K7/8/4P3/3P4/8/8/8/3q3k w - - 0 1");//BLACK pawn on d5 is guarded by the pawn on e6
+		assertEquals("Queen for a pawn",100-2000,MoveGenerator.staticExchange(board,Move.encode(Move.capture,PieceCode.QueenW,Coord.XYToIndex(3,0),Coord.XYToIndex(3,4))));
+		board=PGNConverter.applyFEN("K3R3/8/8/4P3/8/8/4r3/4r2k w - - 0 1");//two WHITE Rooks stacked on the e file against one BLACK Rook
+		int rookTakes=Move.encode(Move.capture,PieceCode.RookW,Coord.XYToIndex(4,1),Coord.XYToIndex(4,4));
+		assertEquals("The Rook behind takes back, WHITE keeps the pawn",100,MoveGenerator.staticExchange(board,rookTakes));
+		board=PGNConverter.applyFEN("K3R3/8/8/4P3/8/8/4r3/7k w - - 0 1");//without the second Rook
+		assertEquals("Rook for a pawn",100-500,MoveGenerator.staticExchange(board,rookTakes));
+		board=PGNConverter.applyFEN("8/8/4K3/4P3/8/5n2/1b6/7k w - - 0 1");//BLACK pawn on e5 is only guarded by its King, the WHITE Bishop also sees e5
+		assertEquals("The King can't take back a guarded Knight",100,MoveGenerator.staticExchange(board,Move.encode(Move.capture,PieceCode.KnightW,Coord.XYToIndex(5,2),Coord.XYToIndex(4,4))));
+	}
+
+	/**
+	 * Checks if a castling move passes through an attacked square, the pseudo legal generator does not check this
+	 * @param board The board before the move
+	 * @param team  Who is moving
+	 * @param move  The move to check
+	 * @return True if the move is a castle that passes through check
+	 */
+	private boolean castlesThroughCheck(Board board,boolean team,int move){
+		if(Move.getSpecialCode(move)==Move.kSideCastle) return MoveGenerator.isSquareAttacked(board,Move.getStartIndex(move)+1,!team);
+		if(Move.getSpecialCode(move)==Move.qSideCastle) return MoveGenerator.isSquareAttacked(board,Move.getStartIndex(move)-1,!team);
+		return false;
+	}
+
+	/**
+	 * Checks if a list holds a move
+	 * @param list The list to search
+	 * @param move The encoded move integer
+	 * @return True if found
+	 */
+	private boolean contains(MoveList list,int move){
+		for(int i=0; i<list.size(); ++i){
+			if(list.get(i)==move) return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Counts the moves with a given special code
+	 * @param list The list to search
+	 * @param code The special move code
+	 * @return How many moves have that code
+	 */
+	private int countMovesByCode(MoveList list,int code){
+		int count=0;
+		for(int i=0; i<list.size(); ++i){
+			if(Move.getSpecialCode(list.get(i))==code) ++count;
+		}
+		return count;
+	}
+}
@@ -0,0 +1,64 @@
+package com.dalton.ChessEngine;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the primitive move list
+ * @author Dalton Herrewynen
+ * @version 1
+ */
+public class MoveListTest{
+	MoveList moves;
+
+	@Before
+	public void setUp(){
+		moves=new MoveList();
+	}
+
+	/** Moves should come back out in the order they went in */
+	@Test
+	public void testAddAndGet(){
+		assertTrue("A new list should be empty",moves.isEmpty());
+		for(int i=0; i<100; ++i){
+			moves.add(Move.encodeNormal(PieceCode.QueenW,i%64,(i+1)%64));
+		}
+		assertEquals("Should hold every move added",100,moves.size());
+		for(int i=0; i<100; ++i){
+			assertEquals("Move "+i+" came back wrong",Move.encodeNormal(PieceCode.QueenW,i%64,(i+1)%64),moves.get(i));
+		}
+	}
+
+	/** Clearing should empty the list but keep it usable */
+	@Test
+	public void testClear(){
+		moves.add(1);
+		moves.add(2);
+		moves.clear();
+		assertEquals("Cleared list should be empty",0,moves.size());
+		moves.add(3);
+		assertEquals("Should be able to add after clearing",3,moves.get(0));
+	}
+
+	/** The list must grow past its capacity instead of throwing */
+	@Test
+	public void testGrow(){
+		moves=new MoveList(4);
+		for(int i=0; i<MoveList.DEFAULT_CAPACITY*2; ++i){
+			moves.add(i);
+		}
+		assertEquals("Should hold every move added",MoveList.DEFAULT_CAPACITY*2,moves.size());
+		assertEquals("Last move should be intact",MoveList.DEFAULT_CAPACITY*2-1,moves.get(moves.size()-1));
+	}
+
+	/** Swapping and copying out */
+	@Test
+	public void testSwapAndToArray(){
+		moves.add(10);
+		moves.add(20);
+		moves.add(30);
+		moves.swap(0,2);
+		assertArrayEquals("Swap should exchange the first and last moves",new int[]{30,20,10},moves.toArray());
+	}
+}
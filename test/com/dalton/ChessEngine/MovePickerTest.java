@@ -0,0 +1,71 @@
+package com.dalton.ChessEngine;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static com.dalton.ChessEngine.Types.*;
+
+/**
+ * Tests the order the move picker hands out moves in, FEN strings here use the engine's lowercase for WHITE
+ * @author Dalton Herrewynen
+ * @version 1
+ */
+public class MovePickerTest{
+	MovePicker picker;
+	int[][] history;
+
+	@Before
+	public void setUp(){
+		picker=new MovePicker();
+		history=new int[TOTAL_SQUARES][TOTAL_SQUARES];
+	}
+
+	/** The table move, then captures biggest victim first, then killers, then quiet moves by history */
+	@Test
+	public void testOrder(){
+		Board board=PGNConverter.applyFEN("4K3/8/8/2R1Q3/3p4/8/8/4k3 w - - 0 1");//WHITE pawn on d4 can take a Rook or a Queen
+		int pawnPush=Move.encodeNormal(PieceCode.PawnW,Coord.XYToIndex(3,3),Coord.XYToIndex(3,4)),
+				takeRook=Move.encode(Move.capture,PieceCode.PawnW,Coord.XYToIndex(3,3),Coord.XYToIndex(2,4)),
+				takeQueen=Move.encode(Move.capture,PieceCode.PawnW,Coord.XYToIndex(3,3),Coord.XYToIndex(4,4)),
+				kingLeft=Move.encodeNormal(PieceCode.KingW,Coord.XYToIndex(4,0),Coord.XYToIndex(3,0)),
+				kingRight=Move.encodeNormal(PieceCode.KingW,Coord.XYToIndex(4,0),Coord.XYToIndex(5,0)),
+				kingUp=Move.encodeNormal(PieceCode.KingW,Coord.XYToIndex(4,0),Coord.XYToIndex(4,1));
+		MoveList moves=new MoveList();
+		for(int move: new int[]{kingLeft,pawnPush,takeRook,kingRight,kingUp,takeQueen}){
+			moves.add(move);
+		}
+		history[Coord.XYToIndex(4,0)][Coord.XYToIndex(4,1)]=50;//King up has caused cutoffs before
+		picker.init(moves,board,kingRight,pawnPush,Move.blank(),history);
+		int[] expected={kingRight,takeQueen,takeRook,pawnPush,kingUp,kingLeft};
+		for(int move: expected){
+			assertTrue("Ran out of moves",picker.hasNext());
+			assertEquals("Wrong order",Move.describe(move),Move.describe(picker.next()));
+		}
+		assertFalse("Every move was handed out",picker.hasNext());
+	}
+
+	/** A cheap piece taking an expensive one comes before an expensive piece taking a cheap one */
+	@Test
+	public void testMvvLva(){
+		Board board=PGNConverter.applyFEN("4K3/8/8/3P4/2p5/8/8/3qk3 w - - 0 1");
+		int pawnTakes=Move.encode(Move.capture,PieceCode.PawnW,Coord.XYToIndex(2,3),Coord.XYToIndex(3,4)),
+				queenTakes=Move.encode(Move.capture,PieceCode.QueenW,Coord.XYToIndex(3,0),Coord.XYToIndex(3,4));
+		assertTrue("Pawn takes pawn should come before Queen takes pawn",MovePicker.mvvLva(board,pawnTakes)>MovePicker.mvvLva(board,queenTakes));
+	}
+
+	/** A capture that loses material by static exchange goes after the quiet moves */
+	@Test
+	public void testLosingCapturesLast(){
+		Board board=PGNConverter.applyFEN("K7/8/4P3/3P4/8/8/8/3q3k w - - 0 1");//BLACK pawn on d5 is guarded by the pawn on e6
+		int queenTakes=Move.encode(Move.capture,PieceCode.QueenW,Coord.XYToIndex(3,0),Coord.XYToIndex(3,4)),
+				queenLeft=Move.encodeNormal(PieceCode.QueenW,Coord.XYToIndex(3,0),Coord.XYToIndex(2,0));
+		MoveList moves=new MoveList();
+		moves.add(queenTakes);
+		moves.add(queenLeft);
+		picker.init(moves,board,Move.blank(),Move.blank(),Move.blank(),history);
+		assertEquals("Quiet move first",Move.describe(queenLeft),Move.describe(picker.next()));
+		assertFalse("Quiet move doesn't lose material",picker.losesMaterial());
+		assertEquals("Losing capture last",Move.describe(queenTakes),Move.describe(picker.next()));
+		assertTrue("Should be marked as losing",picker.losesMaterial());
+	}
+}
@@ -3,7 +3,6 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 
 import static org.junit.Assert.*;
@@ -18,12 +17,12 @@ import static com.dalton.ChessEngine.UtilsForTests.*;
 public class PawnTest{
 	Board board;
 	Engine engine;
-	ArrayList<Integer> gotMoves;
+	MoveList gotMoves;
 
 	@Before
 	public void setup(){
 		board=new Board(Board.CLEAR);
-		gotMoves=new ArrayList<>();
+		gotMoves=new MoveList();
 		engine=new Engine(1,2);
 	}
 
@@ -69,7 +68,7 @@ public class PawnTest{
 
 			gotMoves=Engine.getLegalMoves(board,piece.pieceCode);
 			boolean singleSquareMove=UNSET, doubleSquareMove=UNSET;//move up or down 1 and 2 tiles respectively
-			for(int move: gotMoves){
+			for(int move: gotMoves.toArray()){
 				int endX=Coord.indexToX(Move.getEndIndex(move));
 				int endY=Coord.indexToY(Move.getEndIndex(move));
 				assertEquals("X coordinate should not change",pawnPos.getX(),endX);
@@ -84,7 +83,7 @@ public class PawnTest{
 			board.setSquare(piece.pieceCode,pawnPos.getIndex());
 			singleSquareMove=UNSET;
 			doubleSquareMove=UNSET;
-			for(int move: gotMoves){
+			for(int move: gotMoves.toArray()){
 				int endX=Coord.indexToX(Move.getEndIndex(move));
 				int endY=Coord.indexToY(Move.getEndIndex(move));
 				assertEquals("X coordinate should not change",pawnPos.getX(),endX);
@@ -120,7 +119,7 @@ public class PawnTest{
 
 		gotMoves=Engine.getLegalMoves(board,piece.pieceCode);
 		assertFalse("There should be encoded move integers here",gotMoves.isEmpty());
-		for(int move: gotMoves){
+		for(int move: gotMoves.toArray()){
 			assertEquals("Moves should have starting position correct",piecePos.toString(),Coord.orderedPair(Move.getStartIndex(move)));
 			assertEquals("Move should be of Normal type (0)",Move.normalMove,Move.getSpecialCode(move));
 			assertEquals("Piece code, converted to pretty printed name",PieceCode.decodePieceName(piece.pieceCode),Move.getPieceName(move));
@@ -148,7 +147,7 @@ public class PawnTest{
 		Piece piece=new Pawn(team), friendly=new Queen(team), enemy=new Queen(!team);
 		final int deltaY=(team==WHITE) ? 1 : -1;//if WHITE move up (Y positive) otherwise go down if BLACK (Y negative)
 		final int posY=(team==WHITE) ? 1 : BOARD_SIZE-2;//if WHITE, start on row 1 like a game, if BLACK start 1 from top
-		ArrayList<Integer> captureMoves, standardMoves;
+		MoveList captureMoves, standardMoves;
 		for(int i=0; i<BOARD_SIZE; ++i){
 			pawnPos.setCoord(i,posY);
 			board.setSquare(piece.pieceCode,pawnPos.getIndex());
@@ -323,7 +322,7 @@ public class PawnTest{
 			board.setSquare(pawn.pieceCode,x,(lastRow-direction));
 
 			gotMoves=Engine.getLegalMoves(board,pawn.pieceCode);
-			for(int move: gotMoves){
+			for(int move: gotMoves.toArray()){
 				if(Move.isPawnPromotion(move))//for each promotion
 					++foundPromotions[Move.getPieceCode(move)];//count each instance of each piece code
 			}
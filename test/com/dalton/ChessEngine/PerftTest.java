@@ -0,0 +1,89 @@
+package com.dalton.ChessEngine;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static com.dalton.ChessEngine.Types.*;
+
+/**
+ * Checks the move generator against the well known perft counts, FEN strings here use the engine's lowercase for WHITE
+ * @author Dalton Herrewynen
+ * @version 1
+ */
+public class PerftTest{
+	Engine engine;
+
+	@Before
+	public void setUp(){
+		engine=new Engine(2,4);
+	}
+
+	/**
+	 * Runs perft and checks every depth up to the number of counts given
+	 * @param board    The position to count from
+	 * @param team     Who moves first
+	 * @param expected The known counts, starting at depth 1
+	 */
+	private void checkCounts(Board board,boolean team,long... expected){
+		for(int depth=1; depth<=expected.length; ++depth){
+			assertEquals("Wrong node count at depth "+depth+" on\n"+board,expected[depth-1],engine.perft(board,team,depth).getNodes());
+		}
+	}
+
+	/** The normal starting position */
+	@Test
+	public void testStartingPosition(){
+		checkCounts(new Board(Board.DEFAULT),WHITE,20,400,8902,197281);
+	}
+
+	/** Lots of castling, EnPassant, pins and promotions (Kiwipete) */
+	@Test
+	public void testKiwipete(){
+		checkCounts(PGNConverter.applyFEN("R3K2R/P1PPQPB1/BN2PNP1/3pn3/1P2p3/2n2q1P/pppbbppp/r3k2r w KQkq - 0 1"),WHITE,48,2039,97862);
+	}
+
+	/** Mostly empty board with EnPassant discovered checks along the rank */
+	@Test
+	public void testEndgame(){
+		checkCounts(PGNConverter.applyFEN("8/2P5/3P4/kp5R/1r3P1K/8/4p1p1/8 w - - 0 1"),WHITE,14,191,2812,43238);
+	}
+
+	/** Promotions with captures and a checked King */
+	@Test
+	public void testPromotions(){
+		checkCounts(PGNConverter.applyFEN("RNBQ1K1R/PP1pBPPP/2P5/8/2b5/8/ppp1nNpp/rnbqk2r w KQ - 1 8"),WHITE,44,1486,62379);
+	}
+
+	/** Divide must list every root move and add up to the total */
+	@Test
+	public void testDivide(){
+		Perft result=engine.perft(new Board(Board.DEFAULT),WHITE,3);
+		long total=0;
+		assertEquals("Every root move should be listed",20,result.getRootMoves().size());
+		for(long count: result.getCounts()){
+			total+=count;
+		}
+		assertEquals("Root move counts should add up to the total",result.getNodes(),total);
+		assertTrue("Divide should print the moves in long algebraic notation",result.divide().contains("e2e4: 600"));
+	}
+
+	/** Sharing subtree counts through the hash table must not change any count */
+	@Test
+	public void testHashedCounts(){
+		Board board=PGNConverter.applyFEN("R3K2R/P1PPQPB1/BN2PNP1/3pn3/1P2p3/2n2q1P/pppbbppp/r3k2r w KQkq - 0 1");
+		assertEquals("Kiwipete depth 4",4085603,engine.perft(board,WHITE,4,1).getNodes());
+		assertEquals("Starting position depth 5",4865609,engine.perft(new Board(Board.DEFAULT),WHITE,5,1).getNodes());
+	}
+
+	/** The table hands back what was stored, but only for the same position and depth */
+	@Test
+	public void testPerftTable(){
+		PerftTable table=new PerftTable(1);
+		long hash=new Board(Board.DEFAULT).getHash();
+		assertEquals("Nothing stored yet",-1,table.get(hash,3));
+		table.put(hash,3,8902);
+		assertEquals("Should get back the stored count",8902,table.get(hash,3));
+		assertEquals("Different depth should miss",-1,table.get(hash,4));
+		assertEquals("Different side to move should miss",-1,table.get(hash ^ Zobrist.sideKey(BLACK),3));
+	}
+}
@@ -19,7 +19,7 @@ import static com.dalton.ChessEngine.UtilsForTests.*;
 public class QueenTest{
 	Board board;
 	Engine engine;
-	ArrayList<Integer> gotMoves,filteredMoves;
+	MoveList gotMoves,filteredMoves;
 	ArrayList<Coord> gotCoords, expectedCoords;
 
 	@Before
@@ -27,7 +27,7 @@ public class QueenTest{
 		board=new Board(Board.CLEAR);
 		gotCoords=new ArrayList<>();
 		expectedCoords=new ArrayList<>();
-		filteredMoves=new ArrayList<>();
+		filteredMoves=new MoveList();
 		engine=new Engine(1,2);
 	}
 
@@ -80,7 +80,7 @@ public class QueenTest{
 			gotCoords.sort(Comparator.comparingInt(Coord::getIndex));//sort the coord, so they are in same order and comparisons will work
 			expectedCoords.sort(Comparator.comparingInt(Coord::getIndex));
 
-			for(int move: gotMoves){//test correct piece code
+			for(int move: gotMoves.toArray()){//test correct piece code
 				assertEquals("Piece code should match the Queen",piece.pieceCode,Move.getPieceCode(move));
 			}
 
@@ -116,7 +116,7 @@ public class QueenTest{
 		board.setSquare(piece.pieceCode,piecePos.getIndex());
 		gotMoves=Engine.getLegalMoves(board,piece.pieceCode);
 		assertFalse("There should be encoded move integers here",gotMoves.isEmpty());
-		for(int move: gotMoves){
+		for(int move: gotMoves.toArray()){
 			assertEquals("Moves should have starting position correct",piecePos.toString(),Coord.orderedPair(Move.getStartIndex(move)));
 			assertEquals("Move should be of Normal type (0)",Move.normalMove,Move.getSpecialCode(move));
 			assertEquals("Piece code, converted to pretty printed name",PieceCode.decodePieceName(piece.pieceCode),Move.getPieceName(move));
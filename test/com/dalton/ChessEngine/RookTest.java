@@ -18,14 +18,14 @@ import static com.dalton.ChessEngine.UtilsForTests.*;
 public class RookTest{
 	Board board;
 	Engine engine;
-	ArrayList<Integer> gotMoves, filteredMoves;
+	MoveList gotMoves, filteredMoves;
 	ArrayList<Coord> gotCoords, expectedCoords;
 
 	@Before
 	public void setup(){
 		board=new Board(Board.CLEAR);
-		gotMoves=new ArrayList<>();
-		filteredMoves=new ArrayList<>();
+		gotMoves=new MoveList();
+		filteredMoves=new MoveList();
 		gotCoords=new ArrayList<>();
 		expectedCoords=new ArrayList<>();
 		engine=new Engine(1,2);
@@ -75,7 +75,7 @@ public class RookTest{
 			gotCoords.sort(Comparator.comparingInt(Coord::getIndex));//sort the coord, so they are in same order and comparisons will work
 			expectedCoords.sort(Comparator.comparingInt(Coord::getIndex));
 
-			for(int move: gotMoves){//test correct piece code
+			for(int move: gotMoves.toArray()){//test correct piece code
 				assertEquals("Piece code should match the Rook",piece.pieceCode,Move.getPieceCode(move));
 			}
 
@@ -112,7 +112,7 @@ public class RookTest{
 
 		gotMoves=Engine.getLegalMoves(board,piece.pieceCode);
 		assertFalse("There should be encoded move integers here",gotMoves.isEmpty());
-		for(int move: gotMoves){
+		for(int move: gotMoves.toArray()){
 			assertEquals("Moves should have starting position correct",piecePos.toString(),Coord.orderedPair(Move.getStartIndex(move)));
 			assertEquals("Move should be of Normal type (0)",Move.normalMove,Move.getSpecialCode(move));
 			assertEquals("Piece code, converted to pretty printed name",PieceCode.decodePieceName(piece.pieceCode),Move.getPieceName(move));
@@ -0,0 +1,73 @@
+package com.dalton.ChessEngine;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static com.dalton.ChessEngine.Types.*;
+
+/**
+ * Tests the packing and replacement of the transposition table
+ * @author Dalton Herrewynen
+ * @version 1
+ */
+public class TranspositionTableTest{
+	TranspositionTable table;
+	int move;
+
+	@Before
+	public void setUp(){
+		table=new TranspositionTable(1);
+		move=Move.encode(Move.pawnPromote | Move.capture,PieceCode.QueenB,Coord.XYToIndex(6,1),Coord.XYToIndex(7,0));//uses the highest move bits
+	}
+
+	/** Everything stored must come back out unchanged, including negative and extreme scores */
+	@Test
+	public void testPacking(){
+		int[] scores={0,1,-1,12345,-12345,Integer.MAX_VALUE,Integer.MIN_VALUE};
+		for(int score: scores){
+			for(int bound: new int[]{TranspositionTable.LOWER,TranspositionTable.UPPER,TranspositionTable.EXACT}){
+				table.store(0xABCDEFL,17,score,bound,move);
+				long entry=table.probe(0xABCDEFL);
+				assertNotEquals("Should find what was stored",0,entry);
+				assertEquals("Score",score,TranspositionTable.getScore(entry));
+				assertEquals("Bound",bound,TranspositionTable.getBound(entry));
+				assertEquals("Depth",17,TranspositionTable.getDepth(entry));
+				assertEquals("Move",Move.describe(move),Move.describe(TranspositionTable.getMove(entry)));
+			}
+		}
+		assertEquals("Nothing stored for another position",0,table.probe(0xABCDEFL ^ Zobrist.sideKey(BLACK)));
+	}
+
+	/** Mate scores are stored counting from the position, so they come back right when it is reached at another ply */
+	@Test
+	public void testMateScores(){
+		int mateIn3=Engine.MATE-5;//found 5 plies from the root
+		int stored=TranspositionTable.toStored(mateIn3,2);//at a position 2 plies from the root
+		assertEquals("Mate is 3 plies from the position",Engine.MATE-3,stored);
+		assertEquals("Reached 4 plies from the root, the mate is 7 plies away",Engine.MATE-7,TranspositionTable.fromStored(stored,4));
+		assertEquals("Getting mated works the same",-Engine.MATE+3,TranspositionTable.toStored(-Engine.MATE+5,2));
+		assertEquals("Getting mated back",-Engine.MATE+7,TranspositionTable.fromStored(-Engine.MATE+3,4));
+		assertEquals("Normal scores are left alone",123,TranspositionTable.toStored(123,9));
+		assertEquals("Normal scores are left alone",-123,TranspositionTable.fromStored(-123,9));
+	}
+
+	/** A shallow result must not push a deep one out of the table, and a new result for the same position replaces the old */
+	@Test
+	public void testReplacement(){
+		long deep=0x1000L,other=0x2000L,third=0x3000L;//same low bits so they all land in the same bucket
+		table.store(deep,10,50,TranspositionTable.EXACT,move);
+		table.store(other,2,60,TranspositionTable.EXACT,Move.blank());
+		table.store(third,1,70,TranspositionTable.EXACT,Move.blank());
+		assertEquals("Deep result should survive shallow ones",50,TranspositionTable.getScore(table.probe(deep)));
+		assertEquals("Newest shallow result is kept",70,TranspositionTable.getScore(table.probe(third)));
+		table.store(deep,3,-20,TranspositionTable.UPPER,Move.blank());
+		long entry=table.probe(deep);
+		assertEquals("Same position is replaced",-20,TranspositionTable.getScore(entry));
+		assertEquals("A blank move keeps the best move already known",move,TranspositionTable.getMove(entry));
+		table.newSearch();
+		table.store(other,1,80,TranspositionTable.EXACT,Move.blank());
+		assertEquals("Results from an old search can be replaced",80,TranspositionTable.getScore(table.probe(other)));
+		table.clear();
+		assertEquals("Cleared table is empty",0,table.probe(deep));
+	}
+}
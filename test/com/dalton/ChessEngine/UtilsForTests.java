@@ -15,13 +15,13 @@ import static org.junit.Assert.assertEquals;
 public class UtilsForTests{
 	/**
 	 * Extracts the destination coordinates from a list of Moves
-	 * @param givenMoves The ArrayList of Integer encoded moves
+	 * @param givenMoves The list of Integer encoded moves
 	 * @return a list of coordinates from the destination coordinates in the moves
 	 */
-	public static ArrayList<Coord> getDestCoords(ArrayList<Integer> givenMoves){
+	public static ArrayList<Coord> getDestCoords(MoveList givenMoves){
 		ArrayList<Coord> coords=new ArrayList<>();
-		for(int move: givenMoves){//put the destinations into a list
-			coords.add(new Coord(Move.getEndIndex(move)));
+		for(int i=0; i<givenMoves.size(); ++i){//put the destinations into a list
+			coords.add(new Coord(Move.getEndIndex(givenMoves.get(i))));
 		}
 		return coords;
 	}
@@ -46,12 +46,12 @@ public class UtilsForTests{
 	/**
 	 * Finds capture moves in the move list, does not check for legality
 	 * @param moves List (array) of moves encoded as integers
-	 * @return All capture moves in an ArrayList
+	 * @return All capture moves in a MoveList
 	 */
-	public static ArrayList<Integer> findCaptures(ArrayList<Integer> moves,Board board){
-		ArrayList<Integer> found=new ArrayList<>();
+	public static MoveList findCaptures(MoveList moves,Board board){
+		MoveList found=new MoveList();
 		if(moves!=null && board!=null){//only search if both variables are set
-			for(int move: moves){
+			for(int move: moves.toArray()){
 				if(Move.getSpecialCode(move)==Move.capture &&//if move is both normal
 						board.getSquare(Move.getEndIndex(move))!=PieceCode.Blank){//and covers a non-blank space
 					found.add(move);
@@ -64,12 +64,12 @@ public class UtilsForTests{
 	/**
 	 * Finds just move instances in the move list, does not check for legality
 	 * @param moves List (array) of moves encoded as integers
-	 * @return All just move integers in an ArrayList
+	 * @return All just move integers in a MoveList
 	 */
-	public static ArrayList<Integer> findJustMoves(ArrayList<Integer> moves,Board board){
-		ArrayList<Integer> found=new ArrayList<>();
+	public static MoveList findJustMoves(MoveList moves,Board board){
+		MoveList found=new MoveList();
 		if(moves!=null && board!=null){//only search if both variables are set
-			for(int move: moves){
+			for(int move: moves.toArray()){
 				if(Move.getSpecialCode(move)==Move.normalMove &&//if move is both normal
 						board.getSquare(Move.getEndIndex(move))==PieceCode.Blank){//and covers a blank spot
 					found.add(move);
@@ -83,12 +83,12 @@ public class UtilsForTests{
 	 * Finds all the encoded moves with a given SpecialCode field value
 	 * @param moves      List (array) of moves encoded as integers
 	 * @param searchCode The specialCode to search against
-	 * @return All encoded Move integers with the target SpecialCode in an ArrayList
+	 * @return All encoded Move integers with the target SpecialCode in a MoveList
 	 */
-	public static ArrayList<Integer> findMovesByCode(ArrayList<Integer> moves,int searchCode){
-		ArrayList<Integer> found=new ArrayList<>();
+	public static MoveList findMovesByCode(MoveList moves,int searchCode){
+		MoveList found=new MoveList();
 		if(moves!=null){//only search if there are moves
-			for(int move: moves){
+			for(int move: moves.toArray()){
 				if(Move.getSpecialCode(move)==searchCode){//if the codes match
 					found.add(move);//add to list
 				}
@@ -0,0 +1,92 @@
+package com.dalton.ChessEngine;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+import static com.dalton.ChessEngine.Types.*;
+
+/**
+ * Tests the Zobrist position hashing and the hash Board keeps up to date, FEN strings here use the engine's lowercase for WHITE
+ * @author Dalton Herrewynen
+ * @version 2
+ */
+public class ZobristTest{
+	/** Reaching the same position by different move orders must give the same hash */
+	@Test
+	public void testTransposition(){
+		Board first=new Board(Board.DEFAULT),second=new Board(Board.DEFAULT);
+		int knightOut=Move.encodeNormal(PieceCode.KnightW,Coord.XYToIndex(6,0),Coord.XYToIndex(5,2)),
+				pawnUp=Move.encodeNormal(PieceCode.PawnW,Coord.XYToIndex(4,1),Coord.XYToIndex(4,2)),
+				blackKnight=Move.encodeNormal(PieceCode.KnightB,Coord.XYToIndex(1,7),Coord.XYToIndex(2,5)),
+				blackPawn=Move.encodeNormal(PieceCode.PawnB,Coord.XYToIndex(0,6),Coord.XYToIndex(0,5));
+		first.makeMove(knightOut);
+		first.makeMove(blackKnight);
+		first.makeMove(pawnUp);
+		first.makeMove(blackPawn);
+		second.makeMove(pawnUp);
+		second.makeMove(blackPawn);
+		second.makeMove(knightOut);
+		second.makeMove(blackKnight);
+		assertEquals("Same position, same hash",first.getHash(),second.getHash());
+		assertEquals("Same position should be equal",first,second);
+	}
+
+	/** Things that change the legal moves must change the hash */
+	@Test
+	public void testStateChangesHash(){
+		Board board=new Board(Board.DEFAULT);
+		long start=board.getHash();
+		board.setTurn(BLACK);
+		assertNotEquals("Side to move should change the hash",start,board.getHash());
+		board.setTurn(WHITE);
+		assertEquals("Flipping the side back should give back the hash",start,board.getHash());
+		board.setSquare(PieceCode.RookW,Coord.XYToIndex(Board.KRookX,0));//putting the piece back still marks it as moved
+		assertEquals("WHITE lost King side castling",0b1110,Zobrist.castleRights(board.getUnmoved()));
+		assertNotEquals("Castling rights should change the hash",start,board.getHash());
+		board=new Board(Board.DEFAULT);
+		board.makeMove(Move.encode(Move.pawnDoubleMove,PieceCode.PawnW,Coord.XYToIndex(4,1),Coord.XYToIndex(4,3)));
+		Board noEnPassant=new Board(board);
+		noEnPassant.setEnPassant(0);
+		assertNotEquals("EnPassant should change the hash",board.getHash(),noEnPassant.getHash());
+		assertNotEquals("Different EnPassant means a different position",board,noEnPassant);
+	}
+
+	/** Loading a FEN must give the same hash as playing the moves that lead to it */
+	@Test
+	public void testFENMatchesReplay(){
+		Board board=new Board(Board.DEFAULT);
+		board.makeMove(Move.encode(Move.pawnDoubleMove,PieceCode.PawnW,Coord.XYToIndex(4,1),Coord.XYToIndex(4,3)));//e4
+		assertEquals("After e4",PGNConverter.applyFEN("RNBQKBNR/PPPPPPPP/8/8/4p3/8/pppp1ppp/rnbqkbnr b KQkq e3 0 1").getHash(),board.getHash());
+		board.makeMove(Move.encode(Move.pawnDoubleMove,PieceCode.PawnB,Coord.XYToIndex(4,6),Coord.XYToIndex(4,4)));//e5
+		board.makeMove(Move.encodeNormal(PieceCode.KnightW,Coord.XYToIndex(6,0),Coord.XYToIndex(5,2)));//Nf3
+		assertEquals("After e4 e5 Nf3",PGNConverter.applyFEN("RNBQKBNR/PPPP1PPP/8/4P3/4p3/5n2/pppp1ppp/rnbqkb1r b KQkq - 1 2").getHash(),board.getHash());
+		board.makeMove(Move.encodeNormal(PieceCode.KnightB,Coord.XYToIndex(1,7),Coord.XYToIndex(2,5)));//Nc6
+		board.makeMove(Move.encodeNormal(PieceCode.BishopW,Coord.XYToIndex(5,0),Coord.XYToIndex(4,1)));//Be2
+		board.makeMove(Move.encodeNormal(PieceCode.KnightB,Coord.XYToIndex(6,7),Coord.XYToIndex(5,5)));//Nf6
+		board.makeMove(Move.encodeCastle(Move.kSideCastle,WHITE));//O-O
+		assertEquals("After castling",PGNConverter.applyFEN("R1BQKB1R/PPPP1PPP/2N2N2/4P3/4p3/5n2/ppppbppp/rnbq1rk1 b kq - 5 4").getHash(),board.getHash());
+	}
+
+	/** The hash kept by the board must always match hashing from scratch, including after unmaking moves */
+	@Test
+	public void testIncrementalMatchesScratch(){
+		Random random=new Random(6);//fixed seed so failures can be repeated
+		UndoInfo undo=new UndoInfo();
+		for(int game=0; game<20; ++game){
+			Board board=PGNConverter.applyFEN("R3K2R/P1PPQPB1/BN2PNP1/3pn3/1P2p3/2n2q1P/pppbbppp/r3k2r w KQkq - 0 1");
+			for(int ply=0; ply<60; ++ply){
+				MoveList moves=Engine.getLegalMoves(board,board.getTurn());
+				if(moves.isEmpty()) break;
+				for(int move: moves.toArray()){//every move, then back again
+					long before=board.getHash();
+					board.makeMove(move,undo);
+					assertEquals("Hash after "+Move.describe(move),Zobrist.hash(board),board.getHash());
+					board.unmakeMove(move,undo);
+					assertEquals("Hash after unmaking "+Move.describe(move),before,board.getHash());
+				}
+				board.makeMove(moves.get(random.nextInt(moves.size())));
+			}
+		}
+	}
+}